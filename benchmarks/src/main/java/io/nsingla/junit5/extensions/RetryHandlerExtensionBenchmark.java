@@ -0,0 +1,122 @@
+package io.nsingla.junit5.extensions;
+
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import io.nsingla.junit5.extensions.internal.contexts.RetryTestTemplateInvocationContext;
+import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
+import io.nsingla.junit5.history.FlakinessLedger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the failure path of {@link RetryHandlerExtension}: deciding to retry a failed attempt, wrapping its failure
+ * into {@link TestRetriedException} and queueing the retry, or rethrowing the failure once retries are exhausted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-DretryCount=1", "-DflakinessLedgerFile=target/benchmark-flakiness-ledger.tsv"})
+public class RetryHandlerExtensionBenchmark {
+
+    private final RuntimeException failure = new RuntimeException("failed");
+    private final TestRetriedException retried = new TestRetriedException(1, failure);
+
+    private RetryPolicy retryPolicy;
+    private ExtensionContext retriedContext;
+    private ExtensionContext failedContext;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        retryPolicy = RetryPolicy.of(RetryHandlerExtensionBenchmark.class.getDeclaredMethod("testMethod"));
+        retriedContext = extensionContext(retried);
+        failedContext = extensionContext(failure);
+    }
+
+    /**
+     * Drains the outcomes recorded by {@link #rethrowFailure()}, so they don't pile up in memory.
+     */
+    @TearDown(Level.Iteration)
+    public void saveLedger() {
+        FlakinessLedger.getInstance().save();
+    }
+
+    @RetryFailedTest
+    void testMethod() {
+    }
+
+    /**
+     * First attempt failing and queued for retry.
+     */
+    @Benchmark
+    public Object retryFailure() {
+        TestTemplateIterator<RetryTestTemplateInvocationContext> iterator = new TestTemplateIterator<>();
+        RetryTestTemplateInvocationContext invocationContext = new RetryTestTemplateInvocationContext("testMethod()", retryPolicy, iterator);
+        RetryHandlerExtension<RetryTestTemplateInvocationContext> extension = new RetryHandlerExtension<>(invocationContext);
+        Throwable thrown = null;
+        try {
+            extension.handleTestExecutionException(retriedContext, failure);
+        } catch (Throwable t) {
+            thrown = t;
+        }
+        extension.afterEach(retriedContext);
+        return thrown;
+    }
+
+    /**
+     * Last attempt failing, its failure being rethrown and recorded.
+     */
+    @Benchmark
+    public Object rethrowFailure() {
+        TestTemplateIterator<RetryTestTemplateInvocationContext> iterator = new TestTemplateIterator<>();
+        RetryTestTemplateInvocationContext invocationContext = new RetryTestTemplateInvocationContext("testMethod()", retryPolicy, iterator);
+        invocationContext.queueForRetry();
+        RetryTestTemplateInvocationContext retry = iterator.next();
+        RetryHandlerExtension<RetryTestTemplateInvocationContext> extension = new RetryHandlerExtension<>(retry);
+        Throwable thrown = null;
+        try {
+            extension.handleTestExecutionException(failedContext, failure);
+        } catch (Throwable t) {
+            thrown = t;
+        }
+        extension.afterEach(failedContext);
+        return thrown;
+    }
+
+    /**
+     * Minimal {@link ExtensionContext} of a test invocation that failed with the given exception.
+     */
+    private static ExtensionContext extensionContext(Throwable executionException) {
+        ExtensionContext parent = (ExtensionContext) Proxy.newProxyInstance(ExtensionContext.class.getClassLoader(), new Class<?>[] {ExtensionContext.class},
+            (proxy, method, args) -> "getUniqueId".equals(method.getName()) ? "[engine:junit-jupiter]/[test-template:testMethod()]" : Optional.empty());
+        return (ExtensionContext) Proxy.newProxyInstance(ExtensionContext.class.getClassLoader(), new Class<?>[] {ExtensionContext.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getExecutionException":
+                        return Optional.of(executionException);
+                    case "getParent":
+                        return Optional.of(parent);
+                    case "getUniqueId":
+                        return "[engine:junit-jupiter]/[test-template:testMethod()]/[test-template-invocation:#1]";
+                    default:
+                        return Optional.empty();
+                }
+            });
+    }
+}
@@ -0,0 +1,63 @@
+package io.nsingla.junit5.extensions.internal.contexts;
+
+import io.nsingla.junit5.annotations.RetryFailedParameterizedTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of formatting the display name of a parameterized test invocation with {@link RetryParameterizedTestNameFormatter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameFormatterBenchmark {
+
+    private RetryParameterizedTestNameFormatter formatter;
+    private Object[] smallArguments;
+    private Object[] largeArguments;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        RetryParameterizedTestMethodContext methodContext = RetryParameterizedTestMethodContext.of(
+            NameFormatterBenchmark.class.getDeclaredMethod("testMethod", String.class, int.class, List.class));
+        formatter = new RetryParameterizedTestNameFormatter(RetryFailedParameterizedTest.DEFAULT_DISPLAY_NAME, "testMethod", methodContext, 512);
+        smallArguments = new Object[] {"user", 42, Arrays.asList("a", "b")};
+        char[] payload = new char[4 * 1024 * 1024];
+        Arrays.fill(payload, 'x');
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            rows.add(i);
+        }
+        largeArguments = new Object[] {new String(payload), 42, rows};
+    }
+
+    @SuppressWarnings("unused")
+    void testMethod(String name, int count, List<String> values) {
+    }
+
+    @Benchmark
+    public String formatSmallArguments() {
+        return formatter.format(7, smallArguments);
+    }
+
+    @Benchmark
+    public String formatLargeArguments() {
+        return formatter.format(7, largeArguments);
+    }
+}
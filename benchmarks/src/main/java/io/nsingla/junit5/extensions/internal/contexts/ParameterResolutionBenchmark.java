@@ -0,0 +1,140 @@
+package io.nsingla.junit5.extensions.internal.contexts;
+
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.params.aggregator.ArgumentsAccessor;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the parameters of a parameterized test invocation through {@link RetryParameterizedTestMethodContext},
+ * for a first attempt and for a retry reusing the {@link ResolvedArguments} of the first attempt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterResolutionBenchmark {
+
+    private final Object[] arguments = {"user", "42", "2024-05-01"};
+
+    private RetryParameterizedTestMethodContext methodContext;
+    private RetryParameterizedTestMethodContext aggregatorMethodContext;
+    private ParameterContext[] parameterContexts;
+    private ParameterContext aggregatorParameterContext;
+    private ResolvedArguments resolvedArguments;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        Method testMethod = ParameterResolutionBenchmark.class.getDeclaredMethod("testMethod", String.class, int.class, LocalDate.class);
+        methodContext = RetryParameterizedTestMethodContext.of(testMethod);
+        parameterContexts = new ParameterContext[testMethod.getParameterCount()];
+        for (int i = 0; i < parameterContexts.length; i++) {
+            parameterContexts[i] = new BenchmarkParameterContext(testMethod.getParameters()[i], i);
+        }
+        Method aggregatorMethod = ParameterResolutionBenchmark.class.getDeclaredMethod("aggregatorMethod", ArgumentsAccessor.class);
+        aggregatorMethodContext = RetryParameterizedTestMethodContext.of(aggregatorMethod);
+        aggregatorParameterContext = new BenchmarkParameterContext(aggregatorMethod.getParameters()[0], 0);
+        resolvedArguments = methodContext.newResolvedArguments();
+        for (ParameterContext parameterContext : parameterContexts) {
+            methodContext.resolve(parameterContext, arguments, resolvedArguments);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    void testMethod(String name, int count, LocalDate date) {
+    }
+
+    @SuppressWarnings("unused")
+    void aggregatorMethod(ArgumentsAccessor accessor) {
+    }
+
+    /**
+     * First attempt converting a string, an int and a date.
+     */
+    @Benchmark
+    public void convertFirstAttempt(Blackhole blackhole) {
+        ResolvedArguments resolved = methodContext.newResolvedArguments();
+        for (ParameterContext parameterContext : parameterContexts) {
+            blackhole.consume(methodContext.resolve(parameterContext, arguments, resolved));
+        }
+    }
+
+    /**
+     * Retry reusing the values converted by the first attempt.
+     */
+    @Benchmark
+    public void convertRetry(Blackhole blackhole) {
+        for (ParameterContext parameterContext : parameterContexts) {
+            blackhole.consume(methodContext.resolve(parameterContext, arguments, resolvedArguments));
+        }
+    }
+
+    @Benchmark
+    public Object aggregate() {
+        return aggregatorMethodContext.resolve(aggregatorParameterContext, arguments);
+    }
+
+    /**
+     * {@link ParameterContext} of a test method parameter, without a test instance.
+     */
+    private static final class BenchmarkParameterContext implements ParameterContext {
+
+        private final Parameter parameter;
+        private final int index;
+
+        BenchmarkParameterContext(Parameter parameter, int index) {
+            this.parameter = parameter;
+            this.index = index;
+        }
+
+        @Override
+        public Parameter getParameter() {
+            return parameter;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Optional<Object> getTarget() {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isAnnotated(Class<? extends Annotation> annotationType) {
+            return AnnotationSupport.isAnnotated(parameter, annotationType);
+        }
+
+        @Override
+        public <A extends Annotation> Optional<A> findAnnotation(Class<A> annotationType) {
+            return AnnotationSupport.findAnnotation(parameter, annotationType);
+        }
+
+        @Override
+        public <A extends Annotation> List<A> findRepeatableAnnotations(Class<A> annotationType) {
+            return AnnotationSupport.findRepeatableAnnotations(parameter, annotationType);
+        }
+    }
+}
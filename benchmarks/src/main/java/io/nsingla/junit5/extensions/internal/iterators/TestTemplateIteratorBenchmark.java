@@ -0,0 +1,80 @@
+package io.nsingla.junit5.extensions.internal.iterators;
+
+import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per invocation of {@link TestTemplateIterator#hasNext()} and {@link TestTemplateIterator#next()},
+ * including the bookkeeping done when an attempt finishes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestTemplateIteratorBenchmark {
+
+    private static final int INVOCATIONS = 1000;
+
+    private final List<TestTemplateInvocationContext> contexts = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < INVOCATIONS; i++) {
+            contexts.add(new TestTemplateInvocationContext() {});
+        }
+    }
+
+    /**
+     * Invocations pulled from the source, each passing on its first attempt.
+     */
+    @Benchmark
+    @OperationsPerInvocation(INVOCATIONS)
+    public void firstAttempts(Blackhole blackhole) {
+        TestTemplateIterator<TestTemplateInvocationContext> iterator = new TestTemplateIterator<>();
+        iterator.setSource(contexts.iterator());
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+            iterator.firstAttemptFinished();
+            iterator.tryClose();
+        }
+    }
+
+    /**
+     * Invocations failing once, their retry being queued and passing.
+     */
+    @Benchmark
+    @OperationsPerInvocation(INVOCATIONS)
+    public void retriedAttempts(Blackhole blackhole) {
+        TestTemplateIterator<TestTemplateInvocationContext> iterator = new TestTemplateIterator<>();
+        iterator.setSource(contexts.iterator());
+        boolean retry = false;
+        while (iterator.hasNext()) {
+            TestTemplateInvocationContext context = iterator.next();
+            blackhole.consume(context);
+            if (retry) {
+                iterator.tryClose();
+            } else {
+                iterator.addRetry(context);
+                iterator.firstAttemptFinished();
+            }
+            retry = !retry;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.nsingla.junit5.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording {@link ExecutionMetrics} of a test, from one and from several concurrent threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionMetricsBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final ExecutionMetrics metrics = ExecutionMetrics.getInstance();
+
+    @Benchmark
+    public void recordHistogram() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000_000L));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordHistogramConcurrently() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000_000L));
+    }
+
+    @Benchmark
+    public void recordTest() {
+        long wallNanos = ThreadLocalRandom.current().nextLong(1_000_000_000L);
+        metrics.testStarted();
+        metrics.testFinished("io.nsingla.benchmark.SomeTest", "io.nsingla.benchmark.SomeTest#someTest()", wallNanos, wallNanos >> 4, false);
+        metrics.recordHooks("io.nsingla.benchmark.SomeTest", "io.nsingla.benchmark.SomeTest#someTest()", wallNanos >> 8);
+    }
+}
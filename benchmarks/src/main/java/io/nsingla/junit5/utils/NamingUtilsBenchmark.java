@@ -0,0 +1,80 @@
+package io.nsingla.junit5.utils;
+
+import io.nsingla.junit5.TestBase;
+import org.junit.jupiter.api.TestInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of naming a test with {@link NamingUtils} and of the {@code methodName} MDC handling done by {@link TestBase}
+ * around every test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NamingUtilsBenchmark {
+
+    private final TestBase testBase = new TestBase();
+    private TestInfo testInfo;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        Method testMethod = NamingUtilsBenchmark.class.getDeclaredMethod("testMethod");
+        testInfo = new TestInfo() {
+            @Override
+            public String getDisplayName() {
+                return "testMethod()[retry 1]";
+            }
+
+            @Override
+            public Set<String> getTags() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public Optional<Class<?>> getTestClass() {
+                return Optional.of(NamingUtilsBenchmark.class);
+            }
+
+            @Override
+            public Optional<Method> getTestMethod() {
+                return Optional.of(testMethod);
+            }
+        };
+    }
+
+    @SuppressWarnings("unused")
+    void testMethod() {
+    }
+
+    @Benchmark
+    public String getTestName() {
+        return NamingUtils.getTestName(testInfo);
+    }
+
+    /**
+     * {@code @BeforeEach} and {@code @AfterEach} methods of {@link TestBase}.
+     */
+    @Benchmark
+    public void testBaseHooks() {
+        testBase.addTestNameToMDC(testInfo);
+        testBase.cleanMDC();
+    }
+}
@@ -1,5 +1,6 @@
 package io.nsingla.junit5;
 
+import io.nsingla.junit5.execution.AdaptiveConcurrencyController;
 import org.junit.platform.engine.ConfigurationParameters;
 import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
 import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
@@ -9,20 +10,28 @@ import org.slf4j.LoggerFactory;
 /**
  * Custom execution strategy that sets the number of parallel runs to the value of the system property: {@code threadCount}.
  *
- * <p> Value must be an integer; defaults to {@code 1}.
+ * <p> Value must be an integer or {@code auto}; defaults to {@code 1}.
+ * {@code 0} is an alias of {@code auto}, as Maven Surefire parses {@code threadCount} itself and rejects non-integer values.
+ *
+ * <p> With {@code auto}, the pool is sized to {@code maxThreadCount} (defaults to 4 times the available processors)
+ * and {@link AdaptiveConcurrencyController} adjusts the number of concurrently running tests
+ * between {@code minThreadCount} (defaults to {@code 1}) and {@code maxThreadCount}.
  */
 public class CustomExecutionStrategy implements ParallelExecutionConfigurationStrategy {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomExecutionStrategy.class);
-    private static final int THREAD_COUNT = Integer.parseInt(System.getProperty("threadCount", "1"));
+    private static final String AUTO = "auto";
+    private static final String THREAD_COUNT = System.getProperty("threadCount", "1");
+    private static final int MIN_THREAD_COUNT = Integer.parseInt(System.getProperty("minThreadCount", "1"));
+    private static final int MAX_THREAD_COUNT = Integer.parseInt(System.getProperty("maxThreadCount",
+        String.valueOf(Runtime.getRuntime().availableProcessors() * 4)));
 
     @Override
     public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
-        // Read threads from configuration parameters if set
-        // Mostly used for running tests programmatically
-        Integer threadCount = configurationParameters.get("threads")
-            .map(Integer::parseInt)
-            .orElse(THREAD_COUNT);
+        int threadCount = getThreadCount(configurationParameters);
+        if (isAuto(getThreads(configurationParameters))) {
+            AdaptiveConcurrencyController.enable(Math.min(MIN_THREAD_COUNT, MAX_THREAD_COUNT), MAX_THREAD_COUNT);
+        }
 
         logger.debug("Tests will run on {} thread(s).", threadCount);
 
@@ -54,4 +63,26 @@ public class CustomExecutionStrategy implements ParallelExecutionConfigurationSt
             }
         };
     }
+
+    /**
+     * Returns the number of threads tests run on, i.e. the parallelism of the pool.
+     *
+     * @param configurationParameters configuration parameters of the strategy, without their
+     *                                {@code junit.jupiter.execution.parallel.config.} prefix
+     * @return number of threads, {@code maxThreadCount} with {@code auto}
+     */
+    public static int getThreadCount(ConfigurationParameters configurationParameters) {
+        String threads = getThreads(configurationParameters);
+        return isAuto(threads) ? MAX_THREAD_COUNT : Integer.parseInt(threads);
+    }
+
+    private static String getThreads(ConfigurationParameters configurationParameters) {
+        // Read threads from configuration parameters if set
+        // Mostly used for running tests programmatically
+        return configurationParameters.get("threads").orElse(THREAD_COUNT);
+    }
+
+    private static boolean isAuto(String threads) {
+        return AUTO.equalsIgnoreCase(threads) || "0".equals(threads);
+    }
 }
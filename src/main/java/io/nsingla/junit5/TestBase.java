@@ -1,16 +1,27 @@
 package io.nsingla.junit5;
 
+import io.nsingla.junit5.execution.AdaptiveConcurrencyExtension;
+import io.nsingla.junit5.execution.FailFastCondition;
+import io.nsingla.junit5.execution.ResourceAdmissionExtension;
+import io.nsingla.junit5.metrics.ExecutionMetricsExtension;
+import io.nsingla.junit5.ordering.LongestFirstMethodOrderer;
 import io.nsingla.junit5.utils.NamingUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.slf4j.MDC;
 
 @ExtendWith(TestWatcher.class)
+@ExtendWith(FailFastCondition.class)
+@ExtendWith(ResourceAdmissionExtension.class)
+@ExtendWith(AdaptiveConcurrencyExtension.class)
+@ExtendWith(ExecutionMetricsExtension.class)
 @Execution(ExecutionMode.CONCURRENT)
+@TestMethodOrder(LongestFirstMethodOrderer.class)
 public class TestBase {
 
     protected String methodName = null;
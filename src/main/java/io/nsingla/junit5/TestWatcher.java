@@ -1,5 +1,7 @@
 package io.nsingla.junit5;
 
+import io.nsingla.junit5.execution.FailFastController;
+import io.nsingla.junit5.logging.BufferedTestLogAppender;
 import io.nsingla.junit5.utils.NamingUtils;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.Logger;
@@ -19,14 +21,19 @@ public class TestWatcher implements org.junit.jupiter.api.extension.TestWatcher
 
     @Override
     public void testSuccessful(ExtensionContext extensionContext) {
-        logger.info("Test {} succesfully run.", NamingUtils.getTestName(extensionContext));
+        String testName = NamingUtils.getTestName(extensionContext);
+        logger.info("Test {} succesfully run.", testName);
         MDC.remove("methodName");
+        BufferedTestLogAppender.discard(testName);
+        FailFastController.getInstance().testSucceeded();
     }
 
     @Override
     public void testAborted(ExtensionContext extensionContext, Throwable throwable) {
-        logger.info("Test {} aborted.", NamingUtils.getTestName(extensionContext));
+        String testName = NamingUtils.getTestName(extensionContext);
+        logger.info("Test {} aborted.", testName);
         MDC.remove("methodName");
+        BufferedTestLogAppender.flush(testName);
     }
 
     @Override
@@ -35,5 +42,7 @@ public class TestWatcher implements org.junit.jupiter.api.extension.TestWatcher
         MDC.put("methodName", testName);
         logger.info("Test {} failed.", testName);
         MDC.remove("methodName");
+        BufferedTestLogAppender.flush(testName);
+        FailFastController.getInstance().testFailed(testName);
     }
 }
@@ -0,0 +1,35 @@
+package io.nsingla.junit5.annotations;
+
+/**
+ * Delay strategy applied between retries of a failed test.
+ *
+ * @see RetryFailedTest#backoff()
+ * @see RetryFailedParameterizedTest#backoff()
+ */
+public enum Backoff {
+
+    /**
+     * Uses the strategy set by {@code retryBackoff} system property, defaults to {@link #NONE}.
+     */
+    DEFAULT,
+
+    /**
+     * Retries right away.
+     */
+    NONE,
+
+    /**
+     * Waits {@code backoffDelay} before each retry.
+     */
+    FIXED,
+
+    /**
+     * Doubles the delay with each retry, starting from {@code backoffDelay}.
+     */
+    EXPONENTIAL,
+
+    /**
+     * Waits a random delay between {@code backoffDelay} and three times the previous delay.
+     */
+    DECORRELATED_JITTER
+}
@@ -0,0 +1,29 @@
+package io.nsingla.junit5.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares whether a converted or aggregated parameter of a {@link RetryFailedParameterizedTest} can be reused by retries
+ * of the same invocation, instead of being converted again.
+ * <p>
+ *     Can be put on a parameter, or on an {@code ArgumentConverter} or {@code ArgumentsAggregator} class; the parameter wins.
+ *     Without it, only values of immutable types (strings, primitive wrappers, enums, {@code java.time} types...) are reused.
+ *     Use {@code @CacheableArgument(false)} on converters producing mutable state that a failed attempt may have changed.
+ * </p>
+ */
+@Target({ElementType.TYPE, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheableArgument {
+
+    /**
+     * Whether the value can be reused by retries of the same invocation.
+     *
+     * @return true if the value is computed once per invocation
+     */
+    boolean value() default true;
+}
@@ -0,0 +1,47 @@
+package io.nsingla.junit5.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the arguments provided to a {@link RetryFailedParameterizedTest} on disk, so expensive providers
+ * (database queries, remote catalogs...) are only evaluated again once the cache expires or is invalidated.
+ * <p>
+ *     Arguments of every provider are stored in the directory set by {@code argumentsCacheDir} system property,
+ *     defaults to {@code .junit5-framework/arguments-cache} in the working directory. A cache entry is keyed by the test class
+ *     and method, the provider class, the annotations of the test method with their attributes and {@link #version()}, and only written
+ *     once its provider was fully consumed. Arguments must be {@link java.io.Serializable}, otherwise they aren't cached.
+ *     Cached arguments are only deserialized if their classes are in {@code java.*}, in the packages of the test class
+ *     and of the provider, or allowed by {@code argumentsCacheFilter} system property.
+ * </p>
+ */
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedArguments {
+
+    /**
+     * Version of the provided data, change it to invalidate the cache when the data behind the providers changed.
+     *
+     * @return version of the cached arguments
+     */
+    String version() default "";
+
+    /**
+     * Time to live of the cached arguments, {@code 0} never expires.
+     *
+     * @return time to live in {@link #ttlUnit()}
+     */
+    long ttl() default 0;
+
+    /**
+     * Unit of {@link #ttl()}.
+     *
+     * @return {@link TimeUnit} of the time to live
+     */
+    TimeUnit ttlUnit() default TimeUnit.HOURS;
+}
@@ -0,0 +1,48 @@
+package io.nsingla.junit5.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the units of a shared resource (browsers, database connections, an external API...) used by a test while it runs.
+ * <p>
+ *     Tests extending {@code TestBase} only start once all the units they cost are available, the capacity of a resource
+ *     being set by the {@code resources.<name>.capacity} configuration parameter (e.g. in {@code junit-platform.properties}).
+ *     Costs declared on a class apply to each of its tests, a cost of the same resource declared on the method replaces it.
+ *     Resources without a configured capacity aren't limited.
+ * </p>
+ * <pre>
+ * &#64;Cost(resource = "browser")
+ * &#64;Cost(resource = "db", units = 2)
+ * class CheckoutTest extends TestBase {
+ * }
+ * </pre>
+ *
+ * @see io.nsingla.junit5.execution.ResourceAdmissionController
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@Repeatable(Costs.class)
+public @interface Cost {
+
+    /**
+     * Name of the resource.
+     *
+     * @return resource name
+     */
+    String resource();
+
+    /**
+     * Number of units of the resource used by the test, at most the capacity of the resource.
+     *
+     * @return units of the resource
+     */
+    int units() default 1;
+}
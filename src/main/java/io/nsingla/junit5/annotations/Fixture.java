@@ -0,0 +1,42 @@
+package io.nsingla.junit5.annotations;
+
+import io.nsingla.junit5.fixtures.FixtureExtension;
+import io.nsingla.junit5.fixtures.FixtureFactory;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects an instance leased from the {@link io.nsingla.junit5.fixtures.FixturePool FixturePool} of a {@link FixtureFactory}.
+ * <p>
+ *     The instance is returned to the pool once the test, including its {@code @AfterEach} methods, finished. If the test
+ *     failed (or is going to be retried), the instance is destroyed instead, so a broken instance is never used again.
+ *     Parameters of the same factory share one instance within a test, e.g. in {@code @BeforeEach} methods and the test method.
+ *     Only parameters of test methods and {@code @BeforeEach}/{@code @AfterEach} methods are supported, constructors and
+ *     {@code @BeforeAll} methods can't use pooled instances.
+ * </p>
+ * <pre>
+ * &#64;RetryFailedTest
+ * void searchProducts(&#64;Fixture(WebDriverFactory.class) WebDriver driver) {
+ * }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ExtendWith(FixtureExtension.class)
+public @interface Fixture {
+
+    /**
+     * Factory of the pooled instances. Unless registered with {@link io.nsingla.junit5.fixtures.FixturePool#register(FixtureFactory)},
+     * it's instantiated with its no-argument constructor.
+     *
+     * @return {@link FixtureFactory} class
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends FixtureFactory> value();
+}
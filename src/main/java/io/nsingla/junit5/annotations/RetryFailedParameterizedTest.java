@@ -2,6 +2,7 @@ package io.nsingla.junit5.annotations;
 
 import static org.apiguardian.api.API.Status.STABLE;
 
+import io.nsingla.junit5.extensions.RetryAnyFailure;
 import io.nsingla.junit5.extensions.RetryParameterizedTestExtension;
 import org.apiguardian.api.API;
 import org.junit.jupiter.api.TestTemplate;
@@ -13,12 +14,18 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.function.Predicate;
 
 /**
  * {@code @ParameterizedTestWithRetry} is an extended version of {@link ParameterizedTest},
  * capable of marking failed tests as skipped and re-running them again.
  * <p>
- * The maximum number of retries is customizable via {@code retryCount} environment property.
+ * The maximum number of retries is customizable via {@code retryCount} environment property, or per test via {@link #maxRetries()}.
+ * </p>
+ * <p>
+ * Invocations run one after the other unless the test method or its class is annotated with
+ * {@code @Execution(ExecutionMode.CONCURRENT)} (as {@code TestBase} is). Invocations and their retries are then
+ * dispatched concurrently within the configured parallelism, each invocation keeping its own retry chain.
  * </p>
  *
  * @see ParameterizedTest
@@ -110,4 +117,69 @@ public @interface RetryFailedParameterizedTest {
      */
     String name() default DEFAULT_DISPLAY_NAME;
 
+    /**
+     * Delay strategy applied between retries.
+     * Defaults to {@code retryBackoff} system property, or no delay if not set.
+     *
+     * @return {@link Backoff} strategy
+     */
+    Backoff backoff() default Backoff.DEFAULT;
+
+    /**
+     * Base delay between retries in milliseconds.
+     * Defaults to {@code retryBackoffDelay} system property, or {@code 1000} if not set.
+     *
+     * @return base delay in milliseconds
+     */
+    long backoffDelay() default -1;
+
+    /**
+     * Maximum delay between retries in milliseconds.
+     * Defaults to {@code retryBackoffMaxDelay} system property, or {@code 30000} if not set.
+     *
+     * @return maximum delay in milliseconds
+     */
+    long maxBackoffDelay() default -1;
+
+    /**
+     * Maximum number of retries of this test.
+     * Defaults to {@code retryCount} system property.
+     *
+     * @return maximum number of retries
+     */
+    int maxRetries() default -1;
+
+    /**
+     * Exceptions to retry on, matched against the failure and its causes.
+     * Defaults to any exception.
+     *
+     * @return exception types to retry on
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+
+    /**
+     * Exceptions never retried, matched against the failure and its causes.
+     * Takes precedence over {@link #retryOn()}.
+     *
+     * @return exception types not to retry on
+     */
+    Class<? extends Throwable>[] abortOn() default {};
+
+    /**
+     * Policy deciding if a failure accepted by {@link #retryOn()} and {@link #abortOn()} is retried.
+     * Must have a no-argument constructor; it's instantiated once per test method.
+     *
+     * @return {@link Predicate} class accepting the failures to retry
+     */
+    Class<? extends Predicate<Throwable>> policy() default RetryAnyFailure.class;
+
+    /**
+     * Whether a retry runs as a new invocation, with its own {@code @BeforeEach}/{@code @AfterEach} methods and extensions.
+     * When {@code false}, only the test method is invoked again, in place, within the failed invocation: its fixture
+     * and resolved parameters are reused, and the retries don't show up as skipped tests. Backoff delays aren't applied,
+     * and {@code @Timeout} applies to all the attempts at once.
+     *
+     * @return true if every retry needs a fresh fixture
+     */
+    boolean freshFixture() default true;
 }
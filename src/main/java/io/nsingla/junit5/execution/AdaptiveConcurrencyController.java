@@ -0,0 +1,155 @@
+package io.nsingla.junit5.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Controls the effective number of concurrently running tests when {@code threadCount} is set to {@code auto}.
+ * <p>
+ *     The parallel pool is created with {@code maxThreadCount} workers, while only the current concurrency level
+ *     is admitted to run tests. The level starts from the number of available processors and is periodically
+ *     adjusted from the ratio of CPU time to wall time of finished tests: CPU-bound tests converge to the number
+ *     of cores, tests waiting on I/O get more concurrency. The level always stays between {@code minThreadCount}
+ *     and {@code maxThreadCount}.
+ * </p>
+ *
+ * @see AdaptiveConcurrencyExtension
+ */
+public final class AdaptiveConcurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+    private static final long ADJUST_INTERVAL_NANOS = Long.parseLong(System.getProperty("threadCountAdjustInterval", "2000")) * 1_000_000;
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static volatile AdaptiveConcurrencyController instance = null;
+
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private final int minLevel;
+    private final int maxLevel;
+    private final ResizableSemaphore permits;
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final AtomicLong lastAdjustment = new AtomicLong(System.nanoTime());
+
+    private volatile int level;
+
+    private AdaptiveConcurrencyController(int minLevel, int maxLevel) {
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.level = Math.max(minLevel, Math.min(cores, maxLevel));
+        this.permits = new ResizableSemaphore(level);
+    }
+
+    /**
+     * Enables adaptive concurrency for the current run.
+     * Equal bounds set a fixed concurrency limit.
+     *
+     * @param minLevel minimum number of concurrently running tests
+     * @param maxLevel maximum number of concurrently running tests
+     * @return initial concurrency level
+     */
+    public static int enable(int minLevel, int maxLevel) {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(minLevel, maxLevel);
+        if (THREAD_MX_BEAN.isThreadCpuTimeSupported() && !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+            THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+        }
+        instance = controller;
+        if (minLevel == maxLevel) {
+            logger.info("Concurrency limited to {} test(s).", controller.level);
+        } else {
+            logger.info("Adaptive concurrency enabled: starting with {} concurrent test(s), bounds [{}, {}].", controller.level, minLevel, maxLevel);
+        }
+        return controller.level;
+    }
+
+    /**
+     * Returns the active controller.
+     *
+     * @return {@link AdaptiveConcurrencyController}, {@code null} if adaptive concurrency isn't enabled
+     */
+    static AdaptiveConcurrencyController getInstance() {
+        return instance;
+    }
+
+    /**
+     * Waits until the test is admitted to run.
+     * The worker is deliberately blocked without compensation, which is what limits the concurrency.
+     *
+     * @return {@link Admission} to close once the test finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Admission admit() throws InterruptedException {
+        permits.acquire();
+        return new Admission();
+    }
+
+    private void finished(long cpu, long wall) {
+        permits.release();
+        if (cpu >= 0) {
+            cpuNanos.add(cpu);
+            wallNanos.add(wall);
+        }
+        long now = System.nanoTime();
+        long last = lastAdjustment.get();
+        if (now - last >= ADJUST_INTERVAL_NANOS && lastAdjustment.compareAndSet(last, now)) {
+            adjust();
+        }
+    }
+
+    private void adjust() {
+        long cpu = cpuNanos.sumThenReset();
+        long wall = wallNanos.sumThenReset();
+        if (wall <= 0) {
+            return;
+        }
+        // Blocking coefficient: cores * (wall / cpu) keeps all cores busy without oversubscription
+        double cpuRatio = Math.max((double) cpu / wall, 0.01);
+        int target = (int) Math.ceil(cores / cpuRatio);
+        int current = level;
+        int next = Math.max(minLevel, Math.min(maxLevel, current + (target - current) / 2));
+        if (next != current) {
+            level = next;
+            permits.resize(next - current);
+            logger.info("Adaptive concurrency: CPU/wall ratio {}, changing concurrency from {} to {} test(s).",
+                String.format("%.2f", cpuRatio), current, next);
+        }
+    }
+
+    /**
+     * Admission of a single test, measuring its CPU and wall time until closed.
+     */
+    final class Admission {
+
+        private final long threadId = Thread.currentThread().getId();
+        private final long startCpu = THREAD_MX_BEAN.isThreadCpuTimeEnabled() ? THREAD_MX_BEAN.getThreadCpuTime(threadId) : -1;
+        private final long startWall = System.nanoTime();
+
+        void close() {
+            long endCpu = startCpu < 0 ? -1 : THREAD_MX_BEAN.getThreadCpuTime(threadId);
+            finished(endCpu < 0 ? -1 : endCpu - startCpu, System.nanoTime() - startWall);
+        }
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        void resize(int delta) {
+            if (delta > 0) {
+                release(delta);
+            } else {
+                reducePermits(-delta);
+            }
+        }
+    }
+}
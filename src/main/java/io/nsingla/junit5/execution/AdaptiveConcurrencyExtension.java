@@ -0,0 +1,23 @@
+package io.nsingla.junit5.execution;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Extension admitting tests through {@link AdaptiveConcurrencyController} when adaptive concurrency is enabled.
+ * The admission is released once the test, including its {@code @AfterEach} methods, finished.
+ */
+public class AdaptiveConcurrencyExtension implements BeforeEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(AdaptiveConcurrencyExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        AdaptiveConcurrencyController controller = AdaptiveConcurrencyController.getInstance();
+        if (controller == null) {
+            return;
+        }
+        AdaptiveConcurrencyController.Admission admission = controller.admit();
+        context.getStore(NAMESPACE).put(context.getUniqueId(), (ExtensionContext.Store.CloseableResource) admission::close);
+    }
+}
@@ -0,0 +1,20 @@
+package io.nsingla.junit5.execution;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Skips the classes and tests not started yet, retries included, once {@link FailFastController} aborted the run.
+ */
+public class FailFastCondition implements ExecutionCondition {
+
+    private static final ConditionEvaluationResult ENABLED = ConditionEvaluationResult.enabled("Run not aborted");
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        return FailFastController.getInstance().getReason()
+            .map(reason -> ConditionEvaluationResult.disabled("Run aborted: " + reason))
+            .orElse(ENABLED);
+    }
+}
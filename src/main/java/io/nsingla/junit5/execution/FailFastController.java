@@ -0,0 +1,119 @@
+package io.nsingla.junit5.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Aborts the rest of the run once it's obviously broken, according to the final outcomes of tests (after their retries).
+ * <p>
+ *     The run is aborted as soon as one of the thresholds set by system properties is reached:
+ *     <ul>
+ *         <li>{@code failFastMaxFailures}: number of failed tests;</li>
+ *         <li>{@code failFastFailureRatio}: ratio of failed tests (e.g. {@code 0.6}), once at least {@code failFastMinTests}
+ *         (defaults to {@code 100}) tests finished;</li>
+ *         <li>{@code failFastConsecutiveFailures}: number of tests failing in a row.</li>
+ *     </ul>
+ *     Thresholds are disabled by default. Once tripped, tests and classes not started yet are skipped by {@link FailFastCondition},
+ *     and running tests aren't retried anymore.
+ * </p>
+ */
+public final class FailFastController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailFastController.class);
+    private static final int MAX_FAILURES = Integer.parseInt(System.getProperty("failFastMaxFailures", "0"));
+    private static final double FAILURE_RATIO = Double.parseDouble(System.getProperty("failFastFailureRatio", "0"));
+    private static final int MIN_TESTS = Integer.parseInt(System.getProperty("failFastMinTests", "100"));
+    private static final int CONSECUTIVE_FAILURES = Integer.parseInt(System.getProperty("failFastConsecutiveFailures", "0"));
+
+    private final boolean enabled = MAX_FAILURES > 0 || FAILURE_RATIO > 0 || CONSECUTIVE_FAILURES > 0;
+
+    private int finished = 0;
+    private int failures = 0;
+    private int consecutiveFailures = 0;
+
+    private volatile String reason = null;
+
+    private FailFastController() {
+    }
+
+    /**
+     * Returns the controller shared by the run.
+     *
+     * @return {@link FailFastController}
+     */
+    public static FailFastController getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Records a test that passed, possibly on a retry.
+     */
+    public void testSucceeded() {
+        if (enabled) {
+            record(false, null);
+        }
+    }
+
+    /**
+     * Records a test that failed, retries included.
+     *
+     * @param testName name of the failed test, logged if it trips the controller
+     */
+    public void testFailed(String testName) {
+        if (enabled) {
+            record(true, testName);
+        }
+    }
+
+    /**
+     * Checks if the run is being aborted.
+     *
+     * @return true once a threshold was reached
+     */
+    public boolean isTripped() {
+        return reason != null;
+    }
+
+    /**
+     * Returns the threshold that aborted the run.
+     *
+     * @return description of the reached threshold, empty if the run isn't aborted
+     */
+    public Optional<String> getReason() {
+        return Optional.ofNullable(reason);
+    }
+
+    private synchronized void record(boolean failed, String testName) {
+        finished++;
+        if (failed) {
+            failures++;
+            consecutiveFailures++;
+        } else {
+            consecutiveFailures = 0;
+        }
+        if (reason != null || !failed) {
+            return;
+        }
+        String threshold = null;
+        if (MAX_FAILURES > 0 && failures >= MAX_FAILURES) {
+            threshold = String.format(Locale.ROOT, "%d tests failed (failFastMaxFailures=%d)", failures, MAX_FAILURES);
+        } else if (FAILURE_RATIO > 0 && finished >= MIN_TESTS && (double) failures / finished >= FAILURE_RATIO) {
+            threshold = String.format(Locale.ROOT, "%d out of %d tests failed (failFastFailureRatio=%s, failFastMinTests=%d)",
+                failures, finished, FAILURE_RATIO, MIN_TESTS);
+        } else if (CONSECUTIVE_FAILURES > 0 && consecutiveFailures >= CONSECUTIVE_FAILURES) {
+            threshold = String.format(Locale.ROOT, "%d tests failed in a row (failFastConsecutiveFailures=%d)", consecutiveFailures, CONSECUTIVE_FAILURES);
+        }
+        if (threshold != null) {
+            reason = threshold;
+            logger.error("Aborting the run after {} failed: {}. Remaining tests are skipped.", testName, threshold);
+        }
+    }
+
+    private static final class Holder {
+
+        private static final FailFastController INSTANCE = new FailFastController();
+    }
+}
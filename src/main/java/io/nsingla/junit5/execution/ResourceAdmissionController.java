@@ -0,0 +1,158 @@
+package io.nsingla.junit5.execution;
+
+import org.junit.platform.commons.util.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Admits tests according to the units of shared resources they {@link io.nsingla.junit5.annotations.Cost cost}.
+ * <p>
+ *     Every resource with a configured capacity gets a fair semaphore of as many units, so a test waiting for several units
+ *     isn't starved by lighter tests taking them one at a time. Units of several resources are always acquired in the order
+ *     of the resource names, so tests can't deadlock each other. Waiting is done in {@link ForkJoinPool#managedBlock},
+ *     letting the parallel executor start another worker meanwhile: tests that don't need the exhausted resource keep
+ *     running on the remaining worker slots.
+ * </p>
+ *
+ * @see ResourceAdmissionExtension
+ */
+public final class ResourceAdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceAdmissionController.class);
+
+    /** Configuration parameter of the capacity of a resource, formatted with the resource name. */
+    public static final String CAPACITY_KEY = "resources.%s.capacity";
+
+    // Resources without capacity are mapped to an empty Optional, so their configuration is only read once
+    private final Map<String, Optional<Resource>> resources = new ConcurrentHashMap<>();
+
+    private ResourceAdmissionController() {
+    }
+
+    /**
+     * Returns the controller shared by the run.
+     *
+     * @return {@link ResourceAdmissionController}
+     */
+    public static ResourceAdmissionController getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Waits until all the units of the given resources are acquired.
+     *
+     * @param costs         units of every resource, sorted by resource name
+     * @param configuration configuration parameters, used to read the capacity of resources on first use
+     * @return {@link Admission} to close once the test finished
+     * @throws InterruptedException if interrupted while waiting, units acquired so far are released
+     */
+    public Admission admit(SortedMap<String, Integer> costs, Function<String, Optional<String>> configuration) throws InterruptedException {
+        Admission admission = new Admission();
+        try {
+            for (Map.Entry<String, Integer> cost : costs.entrySet()) {
+                Optional<Resource> resource = resources.computeIfAbsent(cost.getKey(), name -> createResource(name, configuration));
+                if (resource.isPresent()) {
+                    resource.get().acquire(cost.getValue());
+                    admission.acquired.add(Map.entry(resource.get(), cost.getValue()));
+                }
+            }
+        } catch (Throwable t) {
+            admission.close();
+            throw t;
+        }
+        return admission;
+    }
+
+    /**
+     * Returns the number of available units of a resource.
+     *
+     * @param name resource name
+     * @return available units, empty if the resource isn't limited or wasn't used yet
+     */
+    public Optional<Integer> getAvailableUnits(String name) {
+        return resources.getOrDefault(name, Optional.empty()).map(resource -> resource.semaphore.availablePermits());
+    }
+
+    private static Optional<Resource> createResource(String name, Function<String, Optional<String>> configuration) {
+        Optional<Integer> capacity = configuration.apply(String.format(CAPACITY_KEY, name)).map(String::trim).map(Integer::parseInt);
+        if (capacity.isEmpty()) {
+            logger.warn("No capacity configured for resource '{}' ({}), it won't be limited.", name, String.format(CAPACITY_KEY, name));
+            return Optional.empty();
+        }
+        Preconditions.condition(capacity.get() > 0, () -> "Configuration error: capacity of resource '" + name + "' must be positive");
+        logger.info("Resource '{}' limited to {} unit(s).", name, capacity.get());
+        return Optional.of(new Resource(name, capacity.get()));
+    }
+
+    private static final class Resource {
+
+        private final String name;
+        private final int capacity;
+        private final Semaphore semaphore;
+
+        private Resource(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+            this.semaphore = new Semaphore(capacity, true);
+        }
+
+        private void acquire(int units) throws InterruptedException {
+            Preconditions.condition(units > 0 && units <= capacity,
+                () -> String.format("Configuration error: cost of %d unit(s) of resource '%s' must be between 1 and its capacity %d", units, name, capacity));
+            // Unlike tryAcquire(units), a timed tryAcquire doesn't barge ahead of waiting tests
+            if (semaphore.tryAcquire(units, 0, TimeUnit.SECONDS)) {
+                return;
+            }
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+                private boolean acquired = false;
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    if (!acquired) {
+                        semaphore.acquire(units);
+                        acquired = true;
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return acquired;
+                }
+            });
+        }
+    }
+
+    /**
+     * Units acquired by a single test, released when closed.
+     */
+    public static final class Admission {
+
+        private final List<Map.Entry<Resource, Integer>> acquired = new ArrayList<>();
+
+        public void close() {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                Map.Entry<Resource, Integer> entry = acquired.get(i);
+                entry.getKey().semaphore.release(entry.getValue());
+            }
+            acquired.clear();
+        }
+    }
+
+    private static final class Holder {
+
+        private static final ResourceAdmissionController INSTANCE = new ResourceAdmissionController();
+    }
+}
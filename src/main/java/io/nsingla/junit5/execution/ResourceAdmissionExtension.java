@@ -0,0 +1,31 @@
+package io.nsingla.junit5.execution;
+
+import static org.junit.platform.commons.util.AnnotationUtils.findRepeatableAnnotations;
+
+import io.nsingla.junit5.annotations.Cost;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Extension admitting tests through {@link ResourceAdmissionController} according to the {@link Cost} of their class and method.
+ * The units are released once the test, including its {@code @AfterEach} methods, finished.
+ */
+public class ResourceAdmissionExtension implements BeforeEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ResourceAdmissionExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        SortedMap<String, Integer> costs = new TreeMap<>();
+        findRepeatableAnnotations(context.getRequiredTestClass(), Cost.class).forEach(cost -> costs.put(cost.resource(), cost.units()));
+        findRepeatableAnnotations(context.getRequiredTestMethod(), Cost.class).forEach(cost -> costs.put(cost.resource(), cost.units()));
+        if (costs.isEmpty()) {
+            return;
+        }
+        ResourceAdmissionController.Admission admission = ResourceAdmissionController.getInstance().admit(costs, context::getConfigurationParameter);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), (ExtensionContext.Store.CloseableResource) admission::close);
+    }
+}
@@ -0,0 +1,43 @@
+package io.nsingla.junit5.execution;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes tests of the regular Jupiter engine while {@link VirtualThreadJupiterTestEngine} is active,
+ * so every test runs exactly once. Nothing is removed unless the engine is registered.
+ * Registered as a {@link PostDiscoveryFilter} through {@code META-INF/services}.
+ */
+public class VirtualThreadEngineFilter implements PostDiscoveryFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadEngineFilter.class);
+    private static final String JUPITER_ENGINE_ID = "junit-jupiter";
+    private static final AtomicBoolean warned = new AtomicBoolean(false);
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (!VirtualThreadJupiterTestEngine.isRequested()) {
+            return FilterResult.included(null);
+        }
+        if (VirtualThreadJupiterTestEngine.isActive()) {
+            return isJupiterEngineDescriptor(descriptor.getUniqueId())
+                ? FilterResult.excluded("Running on " + VirtualThreadJupiterTestEngine.ENGINE_ID + " engine")
+                : FilterResult.included(null);
+        }
+        if (VirtualThreadHierarchicalTestExecutorService.isSupported() && warned.compareAndSet(false, true)) {
+            logger.warn("-DexecutorMode=virtual is ignored, {} isn't registered in META-INF/services/org.junit.platform.engine.TestEngine.",
+                VirtualThreadJupiterTestEngine.class.getName());
+        }
+        return FilterResult.included(null);
+    }
+
+    private boolean isJupiterEngineDescriptor(UniqueId uniqueId) {
+        return uniqueId.getEngineId().filter(JUPITER_ENGINE_ID::equals).isPresent();
+    }
+}
@@ -0,0 +1,98 @@
+package io.nsingla.junit5.execution;
+
+import static org.junit.platform.engine.support.hierarchical.Node.ExecutionMode.CONCURRENT;
+
+import org.junit.platform.commons.util.ExceptionUtils;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.ResourceLock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link HierarchicalTestExecutorService} running every concurrent test task on its own virtual thread.
+ * <p>
+ *     Virtual threads are only available on Java 21+; they are looked up reflectively so the framework
+ *     keeps running on Java 11. Tasks in {@code SAME_THREAD} mode are executed on the calling thread,
+ *     resource locks are honored in the same way as in the ForkJoin based executor.
+ * </p>
+ *
+ * @see VirtualThreadJupiterTestEngine
+ */
+public class VirtualThreadHierarchicalTestExecutorService implements HierarchicalTestExecutorService {
+
+    private final ExecutorService executor;
+
+    public VirtualThreadHierarchicalTestExecutorService() {
+        this.executor = createVirtualThreadExecutor()
+            .orElseThrow(() -> new UnsupportedOperationException("Virtual threads require Java 21 or newer"));
+    }
+
+    /**
+     * Checks if virtual threads are available on the current JVM.
+     *
+     * @return true if running on Java 21+
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static Optional<ExecutorService> createVirtualThreadExecutor() {
+        if (!isSupported()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Future<Void> submit(TestTask testTask) {
+        if (testTask.getExecutionMode() == CONCURRENT) {
+            return CompletableFuture.runAsync(() -> executeTask(testTask), executor);
+        }
+        executeTask(testTask);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void invokeAll(List<? extends TestTask> tasks) {
+        List<CompletableFuture<Void>> concurrentTasks = new ArrayList<>();
+        List<TestTask> nonConcurrentTasks = new ArrayList<>();
+        for (TestTask task : tasks) {
+            if (task.getExecutionMode() == CONCURRENT) {
+                concurrentTasks.add(CompletableFuture.runAsync(() -> executeTask(task), executor));
+            } else {
+                nonConcurrentTasks.add(task);
+            }
+        }
+        nonConcurrentTasks.forEach(this::executeTask);
+        CompletableFuture.allOf(concurrentTasks.toArray(CompletableFuture<?>[]::new)).join();
+    }
+
+    private void executeTask(TestTask testTask) {
+        ResourceLock lock = testTask.getResourceLock();
+        try {
+            lock.acquire();
+        } catch (InterruptedException e) {
+            throw ExceptionUtils.throwAsUncheckedException(e);
+        }
+        try {
+            testTask.execute();
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,125 @@
+package io.nsingla.junit5.execution;
+
+import org.junit.jupiter.engine.JupiterTestEngine;
+import org.junit.jupiter.engine.config.DefaultJupiterConfiguration;
+import org.junit.jupiter.engine.config.JupiterConfiguration;
+import org.junit.jupiter.engine.descriptor.JupiterEngineDescriptor;
+import org.junit.jupiter.engine.execution.JupiterEngineExecutionContext;
+import org.junit.jupiter.engine.support.JupiterThrowableCollectorFactory;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestEngine;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestEngine;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.ThrowableCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Jupiter test engine running tests on virtual threads, enabled with {@code -DexecutorMode=virtual} on Java 21+.
+ * <p>
+ *     Discovery and execution are delegated to Jupiter, only the executor service is replaced by
+ *     {@link VirtualThreadHierarchicalTestExecutorService}. Instead of a thread count, the number of tests running at once
+ *     is limited by {@code maxConcurrentTests} (defaults to {@code 1000}), only for tests admitted by
+ *     {@link AdaptiveConcurrencyExtension}, i.e. of classes extending {@code TestBase}. While enabled, {@link VirtualThreadEngineFilter}
+ *     removes the tests from the regular Jupiter engine so they don't run twice. On older Java versions the engine stays
+ *     inactive and tests keep running on the regular Jupiter engine.
+ * </p>
+ * <p>
+ *     The engine relies on internal Jupiter classes ({@link JupiterEngineDescriptor}, {@link JupiterEngineExecutionContext}...),
+ *     so it's only meant for the Jupiter version the framework is built with. It isn't registered by the framework, since an
+ *     empty engine would show up in every run: projects opting in list it in their own
+ *     {@code META-INF/services/org.junit.platform.engine.TestEngine}.
+ * </p>
+ */
+public class VirtualThreadJupiterTestEngine extends HierarchicalTestEngine<JupiterEngineExecutionContext> {
+
+    public static final String ENGINE_ID = "jupiter-virtual-threads";
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadJupiterTestEngine.class);
+    private static final boolean ENABLED = "virtual".equalsIgnoreCase(System.getProperty("executorMode"));
+    private static final int MAX_CONCURRENT_TESTS = Integer.parseInt(System.getProperty("maxConcurrentTests", "1000"));
+
+    /**
+     * Checks if tests should run on this engine instead of the regular Jupiter engine.
+     *
+     * @return true if virtual thread executor is requested, supported, and the engine is registered
+     */
+    public static boolean isActive() {
+        return ENABLED && VirtualThreadHierarchicalTestExecutorService.isSupported() && Holder.REGISTERED;
+    }
+
+    /**
+     * Checks if virtual thread executor is requested by {@code executorMode} system property.
+     *
+     * @return true if {@code -DexecutorMode=virtual} is set
+     */
+    public static boolean isRequested() {
+        return ENABLED;
+    }
+
+    @Override
+    public String getId() {
+        return ENGINE_ID;
+    }
+
+    @Override
+    public Optional<String> getGroupId() {
+        return Optional.of("io.github.nsingla");
+    }
+
+    @Override
+    public Optional<String> getArtifactId() {
+        return Optional.of("junit5-framework");
+    }
+
+    @Override
+    public TestDescriptor discover(EngineDiscoveryRequest discoveryRequest, UniqueId uniqueId) {
+        if (!isActive()) {
+            if (ENABLED) {
+                logger.warn("Virtual threads require Java 21 or newer, running tests on the regular Jupiter engine.");
+            }
+            return new EngineDescriptor(uniqueId, "JUnit Jupiter (virtual threads)");
+        }
+        return new JupiterTestEngine().discover(discoveryRequest, uniqueId);
+    }
+
+    @Override
+    protected HierarchicalTestExecutorService createExecutorService(ExecutionRequest request) {
+        if (!isActive() || !getJupiterConfiguration(request).isParallelExecutionEnabled()) {
+            return super.createExecutorService(request);
+        }
+        AdaptiveConcurrencyController.enable(MAX_CONCURRENT_TESTS, MAX_CONCURRENT_TESTS);
+        logger.debug("Tests will run on virtual threads, up to {} at once.", MAX_CONCURRENT_TESTS);
+        return new VirtualThreadHierarchicalTestExecutorService();
+    }
+
+    @Override
+    protected JupiterEngineExecutionContext createExecutionContext(ExecutionRequest request) {
+        return new JupiterEngineExecutionContext(request.getEngineExecutionListener(), getJupiterConfiguration(request));
+    }
+
+    @Override
+    protected ThrowableCollector.Factory createThrowableCollectorFactory(ExecutionRequest request) {
+        return JupiterThrowableCollectorFactory::createThrowableCollector;
+    }
+
+    private JupiterConfiguration getJupiterConfiguration(ExecutionRequest request) {
+        TestDescriptor root = request.getRootTestDescriptor();
+        return root instanceof JupiterEngineDescriptor
+            ? ((JupiterEngineDescriptor) root).getConfiguration()
+            : new DefaultJupiterConfiguration(request.getConfigurationParameters());
+    }
+
+    private static final class Holder {
+
+        private static final boolean REGISTERED = ServiceLoader.load(TestEngine.class).stream()
+            .anyMatch(provider -> provider.type() == VirtualThreadJupiterTestEngine.class);
+    }
+}
@@ -0,0 +1,14 @@
+package io.nsingla.junit5.extensions;
+
+import java.util.function.Predicate;
+
+/**
+ * Default retry policy of {@code @RetryFailedTest} and {@code @RetryFailedParameterizedTest}, accepting any failure.
+ */
+public final class RetryAnyFailure implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return true;
+    }
+}
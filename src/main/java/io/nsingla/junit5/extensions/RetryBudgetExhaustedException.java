@@ -0,0 +1,13 @@
+package io.nsingla.junit5.extensions;
+
+/**
+ * Added as a suppressed exception to test failures that weren't retried because the run-wide retry budget is exhausted.
+ */
+public class RetryBudgetExhaustedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RetryBudgetExhaustedException(String message) {
+        super(message, null, false, false);
+    }
+}
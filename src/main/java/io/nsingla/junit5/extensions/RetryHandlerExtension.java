@@ -2,13 +2,33 @@ package io.nsingla.junit5.extensions;
 
 import static org.apache.commons.collections4.SetUtils.unmodifiableSet;
 
+import io.nsingla.junit5.execution.FailFastController;
 import io.nsingla.junit5.extensions.internal.contexts.GenericTestTemplateInvocationContext;
+import io.nsingla.junit5.extensions.internal.retry.AdaptiveRetryLimit;
+import io.nsingla.junit5.extensions.internal.retry.ExceptionMatcher;
+import io.nsingla.junit5.extensions.internal.retry.RetryBudget;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
+import io.nsingla.junit5.history.FlakinessLedger;
+import io.nsingla.junit5.history.FlakinessLedger.Outcome;
+import io.nsingla.junit5.metrics.AttemptLogListener;
+import io.nsingla.junit5.utils.NamingUtils;
 import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 import org.junit.jupiter.api.extension.TestExecutionExceptionHandler;
+import org.junit.jupiter.api.extension.TestWatcher;
 import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.support.ReflectionSupport;
 import org.opentest4j.TestAbortedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -19,41 +39,199 @@ import java.util.Set;
  *     <li>Original exception is re-thrown after {@link #MAX_RETRY} number of failures.</li>
  *     <li>Retried tests are always marked as skipped, while {@link TestRetriedException} holds the original exception.</li>
  *     <li>Retrying is skipped in case exception is one of {@link #IGNORED_EXCEPTIONS}.</li>
+ *     <li>Maximum number of retries and retried exceptions can be overridden per test,
+ *     see {@link io.nsingla.junit5.extensions.internal.retry.RetryPolicy RetryPolicy}.</li>
+ *     <li>Retries are held back until all first attempts of the run finished if {@link #DEFER_RETRIES} is set.</li>
+ *     <li>Outcome of every test is recorded into {@link FlakinessLedger}. If {@link #ADAPTIVE_RETRIES} is set,
+ *     the number of retries is derived from it by {@link AdaptiveRetryLimit}, up to {@link #MAX_RETRY}.</li>
+ *     <li>Retries are taken from the run-wide {@link RetryBudget}. Once it's exhausted, failures are thrown right away
+ *     with a suppressed {@link RetryBudgetExhaustedException}.</li>
+ *     <li>If the test doesn't need a fresh fixture for its retries, failures are retried in place by invoking the test method
+ *     again within the same invocation, without re-running its lifecycle methods; only the last failure is reported.
+ *     Other {@link InvocationInterceptor}s (e.g. {@code @Timeout}) and {@code BeforeTestExecutionCallback}/{@code AfterTestExecutionCallback}
+ *     extensions run once around all the attempts, backoff delays aren't applied, and an interrupted attempt (e.g. by
+ *     {@code @Timeout}) isn't retried.</li>
+ *     <li>Failures aren't retried anymore once {@link FailFastController} aborted the run.</li>
  * </ul>
  *
  * @param <T> {@link RetryHandlerExtension} type
  */
-public class RetryHandlerExtension<T extends GenericTestTemplateInvocationContext<T>> implements TestExecutionExceptionHandler, AfterEachCallback {
+public class RetryHandlerExtension<T extends GenericTestTemplateInvocationContext<T>>
+    implements TestExecutionExceptionHandler, BeforeEachCallback, AfterEachCallback, InvocationInterceptor, TestWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryHandlerExtension.class);
 
     public static final int MAX_RETRY = Integer.parseInt(System.getProperty("retryCount", "0"));
 
+    public static final boolean ADAPTIVE_RETRIES = "adaptive".equals(System.getProperty("retryPolicy", "fixed").toLowerCase(Locale.ROOT));
+
+    public static final boolean DEFER_RETRIES = Boolean.parseBoolean(System.getProperty("deferRetries", "false"));
+
     public static final Set<Class<?>> IGNORED_EXCEPTIONS = unmodifiableSet(JUnitException.class, TestAbortedException.class, SkipRetryException.class);
 
+    private static final ExceptionMatcher IGNORED_EXCEPTIONS_MATCHER = ExceptionMatcher.of(IGNORED_EXCEPTIONS);
+
     private final T invocationContext;
 
+    private int inPlaceRetries = 0;
+
     public RetryHandlerExtension(T context) {
         this.invocationContext = context;
     }
 
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (invocationContext.getFailuresCount() == 0) {
+            RetryBudget.testStarted();
+        } else if (AttemptLogListener.isEnabled()) {
+            context.publishReportEntry(AttemptLogListener.RETRY_ENTRY, String.valueOf(invocationContext.getFailuresCount()));
+        }
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> methodInvocationContext,
+                                            ExtensionContext extensionContext) throws Throwable {
+        RetryPolicy retryPolicy = invocationContext.getRetryPolicy();
+        if (!retryPolicy.isInPlace()) {
+            invocation.proceed();
+            return;
+        }
+        Throwable failure;
+        try {
+            invocation.proceed();
+            return;
+        } catch (Throwable t) {
+            failure = t;
+        }
+        // Backoff delays aren't applied in place: sleeping would hold the worker, and @Timeout covers all attempts at once
+        while (!isInterrupted(failure) && shouldRetry(extensionContext, failure, inPlaceRetries)) {
+            inPlaceRetries++;
+            logger.info("Retrying {} in place (x{})", NamingUtils.getTestName(extensionContext), inPlaceRetries);
+            extensionContext.publishReportEntry(AttemptLogListener.inPlaceRetryEntry(inPlaceRetries, failure));
+            try {
+                ReflectionSupport.invokeMethod(methodInvocationContext.getExecutable(), methodInvocationContext.getTarget().orElse(null),
+                    methodInvocationContext.getArguments().toArray());
+                return;
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Checks if the test thread was interrupted, e.g. by {@code @Timeout}: retrying in place would outlive the timeout.
+     *
+     * @param throwable failure of the test
+     * @return true if the thread is interrupted or the failure was caused by an {@link InterruptedException}
+     */
+    private static boolean isInterrupted(Throwable throwable) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
         // Throw the original exception if test execution is aborted or maximum number of retry reached and do not retry
-        if (!invocationContext.isMaxFailureCountReached(MAX_RETRY) && !isIgnoredException(throwable)) {
+        // In-place retries were already done by interceptTestTemplateMethod
+        if (!invocationContext.getRetryPolicy().isInPlace() && shouldRetry(context, throwable, invocationContext.getFailuresCount())) {
             throw new TestRetriedException(invocationContext.getFailuresCount() + 1, throwable);
         }
         throw throwable;
     }
 
+    /**
+     * Checks if a failure is retried, taking the retry from {@link RetryBudget}.
+     *
+     * @param context       {@link ExtensionContext} of the test invocation
+     * @param throwable     failure of the test
+     * @param failuresCount number of failures before this one
+     * @return true if the failure should be retried, false if it's thrown
+     */
+    private boolean shouldRetry(ExtensionContext context, Throwable throwable, int failuresCount) {
+        if (failuresCount >= getMaxRetry(context) || isIgnoredException(throwable) || !invocationContext.getRetryPolicy().shouldRetry(throwable)
+            || FailFastController.getInstance().isTripped()) {
+            return false;
+        }
+        if (RetryBudget.tryAcquire()) {
+            return true;
+        }
+        throwable.addSuppressed(new RetryBudgetExhaustedException(RetryBudget.getExhaustedMessage()));
+        return false;
+    }
+
     @Override
     public void afterEach(ExtensionContext context) {
         // Retry only if original exception is wrapped inside TestRetriedException
         if (context.getExecutionException().isPresent() && context.getExecutionException().get() instanceof TestRetriedException) {
             invocationContext.queueForRetry();
         } else {
+            recordOutcome(context);
             invocationContext.queueForClose();
         }
     }
 
+    @Override
+    public void testDisabled(ExtensionContext context, Optional<String> reason) {
+        // Invocations skipped by an ExecutionCondition (e.g. once the run is aborted) don't reach afterEach
+        invocationContext.queueForClose();
+    }
+
+    /**
+     * Returns the maximum number of retries of the test.
+     *
+     * @param context {@link ExtensionContext} of the test invocation
+     * @return maximum number of retries of the test, or the adaptive number of retries if {@link #ADAPTIVE_RETRIES} is set
+     */
+    private int getMaxRetry(ExtensionContext context) {
+        int maxRetry = invocationContext.getRetryPolicy().getMaxRetries(MAX_RETRY);
+        if (!ADAPTIVE_RETRIES) {
+            return maxRetry;
+        }
+        return getTestId(context)
+            .map(testId -> AdaptiveRetryLimit.of(testId, maxRetry))
+            .orElse(maxRetry);
+    }
+
+    /**
+     * Records the final outcome of the invocation.
+     * Aborted and skipped tests aren't recorded, neither are failures not retried because of an exhausted {@link RetryBudget}.
+     *
+     * @param context {@link ExtensionContext} of the test invocation
+     */
+    private void recordOutcome(ExtensionContext context) {
+        Optional<Throwable> exception = context.getExecutionException();
+        if (exception.isPresent() && (isIgnoredException(exception.get()) || isRetryBudgetExhausted(exception.get()))) {
+            return;
+        }
+        boolean retried = invocationContext.getFailuresCount() > 0 || inPlaceRetries > 0;
+        Outcome outcome = exception.isPresent()
+            ? (retried ? Outcome.FAILED : Outcome.FAILED_NOT_RETRIED)
+            : (retried ? Outcome.PASSED_ON_RETRY : Outcome.PASSED);
+        getTestId(context).ifPresent(testId -> FlakinessLedger.getInstance().record(testId, outcome));
+    }
+
+    private boolean isRetryBudgetExhausted(Throwable throwable) {
+        return Arrays.stream(throwable.getSuppressed()).anyMatch(RetryBudgetExhaustedException.class::isInstance);
+    }
+
+    /**
+     * Returns the unique id of the test template, shared by all invocations and retries of the test.
+     *
+     * @param context {@link ExtensionContext} of the test invocation
+     * @return unique id of the test template
+     */
+    private Optional<String> getTestId(ExtensionContext context) {
+        return context.getParent().map(ExtensionContext::getUniqueId);
+    }
+
     /**
      * Checks if the provided exception is on ignore list of {@link #IGNORED_EXCEPTIONS}.
      *
@@ -61,8 +239,6 @@ public class RetryHandlerExtension<T extends GenericTestTemplateInvocationContex
      * @return true if exception should be ignored
      */
     private boolean isIgnoredException(Throwable throwable) {
-        Class<?> clazz = throwable.getClass();
-        return IGNORED_EXCEPTIONS.stream()
-            .anyMatch(ignoredException -> ignoredException.isAssignableFrom(clazz));
+        return IGNORED_EXCEPTIONS_MATCHER.matches(throwable);
     }
 }
@@ -5,11 +5,17 @@ import static org.junit.platform.commons.util.AnnotationUtils.findAnnotation;
 import static org.junit.platform.commons.util.AnnotationUtils.findRepeatableAnnotations;
 import static org.junit.platform.commons.util.AnnotationUtils.isAnnotated;
 
+import io.nsingla.junit5.annotations.CachedArguments;
 import io.nsingla.junit5.annotations.RetryFailedParameterizedTest;
+import io.nsingla.junit5.extensions.internal.arguments.ArgumentsCache;
 import io.nsingla.junit5.extensions.internal.contexts.RetryParameterizedTestMethodContext;
 import io.nsingla.junit5.extensions.internal.contexts.RetryParameterizedTestNameFormatter;
 import io.nsingla.junit5.extensions.internal.contexts.RetryParameterizedTestTemplateInvocationContext;
+import io.nsingla.junit5.extensions.internal.iterators.PrefetchedStreamsIterator;
+import io.nsingla.junit5.extensions.internal.iterators.StreamConcatIterator;
 import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
+import io.nsingla.junit5.extensions.internal.retry.DeferredRetryPass;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContextProvider;
@@ -23,10 +29,15 @@ import org.junit.platform.commons.util.Preconditions;
 import org.junit.platform.commons.util.ReflectionUtils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -55,7 +66,7 @@ public class RetryParameterizedTestExtension implements TestTemplateInvocationCo
         if (!isAnnotated(testMethod, RetryFailedParameterizedTest.class)) {
             return false;
         }
-        RetryParameterizedTestMethodContext methodContext = new RetryParameterizedTestMethodContext(testMethod);
+        RetryParameterizedTestMethodContext methodContext = RetryParameterizedTestMethodContext.of(testMethod);
         Preconditions.condition(methodContext.hasPotentiallyValidSignature(),
             () -> String.format(
                 "@ParameterizedTest method [%s] declares formal parameters in an invalid order: "
@@ -75,23 +86,41 @@ public class RetryParameterizedTestExtension implements TestTemplateInvocationCo
         RetryParameterizedTestMethodContext methodContext = getStore(extensionContext).get(METHOD_CONTEXT_KEY, RetryParameterizedTestMethodContext.class);
         int argumentMaxLength = extensionContext.getConfigurationParameter(ARGUMENT_MAX_LENGTH_KEY, Integer::parseInt).orElse(512);
         RetryParameterizedTestNameFormatter formatter = createNameFormatter(templateMethod, methodContext, displayName, argumentMaxLength);
+        RetryPolicy retryPolicy = RetryPolicy.of(templateMethod);
         AtomicInteger invocationCount = new AtomicInteger(0);
 
-        findRepeatableAnnotations(templateMethod, ArgumentsSource.class)
+        Optional<CachedArguments> cachedArguments = findAnnotation(templateMethod, CachedArguments.class);
+        List<ArgumentsProvider> argumentsProviders = findRepeatableAnnotations(templateMethod, ArgumentsSource.class)
             .stream()
             .map(ArgumentsSource::value)
             .map(this::instantiateArgumentsProvider)
             .map(provider -> AnnotationConsumerInitializer.initialize(templateMethod, provider))
-            .flatMap(provider -> arguments(provider, extensionContext))
+            .collect(Collectors.toList());
+
+        // Providers are opened concurrently, and their arguments are pulled lazily by the iterator in declaration order.
+        // Invocation contexts are created by the consuming thread, so invocation indexes follow the declaration order too
+        List<Supplier<Stream<? extends Arguments>>> providers = new ArrayList<>();
+        for (int i = 0; i < argumentsProviders.size(); i++) {
+            ArgumentsProvider provider = argumentsProviders.get(i);
+            int providerIndex = i;
+            providers.add(() -> cachedArguments
+                .<Stream<? extends Arguments>>map(cached -> ArgumentsCache.get(extensionContext.getRequiredTestClass(), templateMethod, providerIndex, provider, cached,
+                    () -> arguments(provider, extensionContext)))
+                .orElseGet(() -> arguments(provider, extensionContext)));
+        }
+        StreamConcatIterator<Arguments> source = new StreamConcatIterator<>(PrefetchedStreamsIterator.of(providers));
+        Iterator<RetryParameterizedTestTemplateInvocationContext> invocationContexts = StreamSupport.stream(spliteratorUnknownSize(source, Spliterator.NONNULL), false)
             .map(Arguments::get)
             .map(arguments -> consumedArguments(arguments, methodContext))
-            .map(arguments -> createInvocationContext(formatter, methodContext, arguments, invocationCount.incrementAndGet()))
-            .onClose(() -> Preconditions.condition(invocationCount.get() > 0, "Configuration error: You must configure at least one set of arguments for this @ParameterizedTestWithRetry"))
-            .forEach(iterator::add);
+            .map(arguments -> createInvocationContext(formatter, methodContext, arguments, invocationCount.incrementAndGet(), retryPolicy))
+            .iterator();
+        iterator.setSource(invocationContexts);
 
-        iterator.setEndCountGoal(invocationCount.get());
+        DeferredRetryPass.of(extensionContext).ifPresent(pass -> iterator.enableDeferredRetries(pass, extensionContext.getUniqueId()));
 
-        return StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.NONNULL), false);
+        return StreamSupport.<TestTemplateInvocationContext>stream(spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+            .onClose(source::close)
+            .onClose(() -> Preconditions.condition(invocationCount.get() > 0, "Configuration error: You must configure at least one set of arguments for this @ParameterizedTestWithRetry"));
     }
 
     @SuppressWarnings("ConstantConditions")
@@ -115,8 +144,8 @@ public class RetryParameterizedTestExtension implements TestTemplateInvocationCo
     }
 
     private RetryParameterizedTestTemplateInvocationContext createInvocationContext(RetryParameterizedTestNameFormatter formatter, RetryParameterizedTestMethodContext methodContext,
-                                                                                    Object[] arguments, int invocationIndex) {
-        return new RetryParameterizedTestTemplateInvocationContext(formatter, methodContext, arguments, invocationIndex, iterator);
+                                                                                    Object[] arguments, int invocationIndex, RetryPolicy retryPolicy) {
+        return new RetryParameterizedTestTemplateInvocationContext(formatter, methodContext, arguments, invocationIndex, retryPolicy, iterator);
     }
 
     private RetryParameterizedTestNameFormatter createNameFormatter(Method templateMethod, RetryParameterizedTestMethodContext methodContext,
@@ -5,11 +5,14 @@ import static java.util.Spliterators.spliteratorUnknownSize;
 import io.nsingla.junit5.annotations.RetryFailedTest;
 import io.nsingla.junit5.extensions.internal.contexts.RetryTestTemplateInvocationContext;
 import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
+import io.nsingla.junit5.extensions.internal.retry.DeferredRetryPass;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContextProvider;
 import org.junit.platform.commons.util.AnnotationUtils;
 
+import java.util.Collections;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -35,7 +38,9 @@ public class RetryTestExtension implements TestTemplateInvocationContextProvider
 
     @Override
     public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(ExtensionContext context) {
-        iterator.add(new RetryTestTemplateInvocationContext(context.getDisplayName(), iterator));
+        RetryPolicy retryPolicy = RetryPolicy.of(context.getRequiredTestMethod());
+        iterator.setSource(Collections.singletonList(new RetryTestTemplateInvocationContext(context.getDisplayName(), retryPolicy, iterator)).iterator());
+        DeferredRetryPass.of(context).ifPresent(pass -> iterator.enableDeferredRetries(pass, context.getUniqueId()));
         return StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.NONNULL), false);
     }
 }
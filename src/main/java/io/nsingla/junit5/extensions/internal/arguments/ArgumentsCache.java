@@ -0,0 +1,388 @@
+package io.nsingla.junit5.extensions.internal.arguments;
+
+import io.nsingla.junit5.annotations.CachedArguments;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.platform.commons.JUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * On-disk cache of the arguments of {@link CachedArguments} parameterized tests, one file per arguments provider.
+ * <p>
+ *     A file holds a header (magic number and creation time) followed by the serialized argument sets, each prefixed
+ *     by its length, and an end marker. Files are memory-mapped and validated before being used, then argument sets are
+ *     deserialized one at a time while the test consumes them. New files are written next to the provider's stream and
+ *     atomically moved in place once the stream was fully consumed; a partially consumed or non-serializable stream
+ *     leaves the cache untouched.
+ * </p>
+ * <p>
+ *     Cache files are deserialized, so a tampered file (e.g. restored from a shared CI cache) could instantiate arbitrary
+ *     classes. Reading is restricted by an {@link ObjectInputFilter} to {@code java.*} classes, the packages of the test
+ *     and provider classes and their sub-packages, and the patterns set by {@code argumentsCacheFilter} system property
+ *     (e.g. {@code com.example.model.**}, see {@link ObjectInputFilter.Config#createFilter(String)}). Only use a cache
+ *     directory writable by trusted builds.
+ * </p>
+ */
+public final class ArgumentsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArgumentsCache.class);
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("argumentsCacheDir", ".junit5-framework/arguments-cache"));
+    private static final String FILTER = System.getProperty("argumentsCacheFilter", "");
+    private static final int MAX_DEPTH = 64;
+
+    private static final int MAGIC = 0x4A354143;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int END = -1;
+
+    private ArgumentsCache() {
+    }
+
+    /**
+     * Returns the cached arguments of a provider, or the arguments it provides, cached once fully consumed.
+     *
+     * @param testClass       test class the method runs in, which may inherit it
+     * @param testMethod      parameterized test method
+     * @param providerIndex   index of the provider among the providers of the method
+     * @param provider        arguments provider
+     * @param cachedArguments cache configuration of the method
+     * @param arguments       supplier of the provider's arguments, called on cache miss
+     * @return stream of arguments, to be closed once consumed
+     */
+    public static Stream<? extends Arguments> get(Class<?> testClass, Method testMethod, int providerIndex, ArgumentsProvider provider,
+                                                  CachedArguments cachedArguments, Supplier<Stream<? extends Arguments>> arguments) {
+        Path file = CACHE_DIR.resolve(key(testClass, testMethod, providerIndex, provider, cachedArguments) + ".bin");
+        ByteBuffer cached = read(file, cachedArguments.ttlUnit().toMillis(cachedArguments.ttl()));
+        if (cached != null) {
+            logger.debug("Using cached arguments of {} from {}", testMethod, file);
+            return stream(new CachedArgumentsIterator(cached, file, filter(testClass, provider)));
+        }
+        Stream<? extends Arguments> provided = arguments.get();
+        CachingIterator iterator = new CachingIterator(provided.iterator(), file);
+        return stream(iterator).onClose(() -> {
+            try {
+                provided.close();
+            } finally {
+                iterator.abandon();
+            }
+        });
+    }
+
+    private static Stream<Arguments> stream(Iterator<Arguments> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    static String key(Class<?> testClass, Method testMethod, int providerIndex, ArgumentsProvider provider, CachedArguments cachedArguments) {
+        // The method may be inherited by several test classes, each with its own provided arguments
+        StringBuilder key = new StringBuilder()
+            .append(testClass.getName()).append('\n')
+            .append(testMethod.toGenericString()).append('\n')
+            .append(providerIndex).append('\n')
+            .append(provider.getClass().getName()).append('\n')
+            .append(cachedArguments.version()).append('\n');
+        for (Annotation annotation : testMethod.getDeclaredAnnotations()) {
+            key.append(annotation).append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new JUnitException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Creates the filter of the classes allowed in the cache files of a provider.
+     *
+     * @param testClass test class
+     * @param provider  arguments provider
+     * @return filter allowing {@code java.*} classes, the packages of the test and provider classes and the configured patterns
+     */
+    static ObjectInputFilter filter(Class<?> testClass, ArgumentsProvider provider) {
+        StringBuilder pattern = new StringBuilder("maxdepth=").append(MAX_DEPTH).append(";java.**;");
+        for (Class<?> type : new Class<?>[] {testClass, provider.getClass()}) {
+            if (!type.getPackageName().isEmpty()) {
+                pattern.append(type.getPackageName()).append(".**;");
+            }
+        }
+        if (!FILTER.isBlank()) {
+            pattern.append(FILTER).append(';');
+        }
+        return ObjectInputFilter.Config.createFilter(pattern.append("!*").toString());
+    }
+
+    /**
+     * Maps a cache file and validates its layout.
+     *
+     * @return buffer positioned on the first argument set, {@code null} if missing, expired or corrupted
+     */
+    private static ByteBuffer read(Path file, long ttlMillis) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not an arguments cache file");
+            }
+            long createdAt = buffer.getLong();
+            if (ttlMillis > 0 && System.currentTimeMillis() - createdAt > ttlMillis) {
+                logger.debug("Cached arguments in {} expired", file);
+                return null;
+            }
+            ByteBuffer records = buffer.duplicate();
+            int length;
+            while ((length = buffer.getInt()) != END) {
+                if (length < 0) {
+                    throw new IOException("invalid record length " + length);
+                }
+                buffer.position(buffer.position() + length);
+            }
+            return records;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.warn("Ignoring corrupted arguments cache {}: {}", file, e.getMessage() != null ? e.getMessage() : e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Deserializes the argument sets of a mapped cache file, one at a time.
+     */
+    private static final class CachedArgumentsIterator implements Iterator<Arguments> {
+
+        private final ByteBuffer buffer;
+        private final Path file;
+        private final ObjectInputFilter filter;
+        private int length;
+
+        CachedArgumentsIterator(ByteBuffer buffer, Path file, ObjectInputFilter filter) {
+            this.buffer = buffer;
+            this.file = file;
+            this.filter = filter;
+            this.length = buffer.getInt();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return length != END;
+        }
+
+        @Override
+        public Arguments next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+            length = buffer.getInt();
+            try (ObjectInputStream input = new ContextObjectInputStream(new ByteBufferInputStream(record))) {
+                input.setObjectInputFilter(filter);
+                return Arguments.of((Object[]) input.readObject());
+            } catch (InvalidClassException e) {
+                throw new JUnitException("Unable to read cached arguments from " + file + ": " + e.getMessage()
+                    + ". Add the package of the class to -DargumentsCacheFilter= if the cache directory is trusted", e);
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                throw new JUnitException("Unable to read cached arguments from " + file
+                    + ", change the version of @CachedArguments or delete the file to refresh them", e);
+            }
+        }
+    }
+
+    /**
+     * Passes the argument sets of a provider through, writing them to a temporary file moved in place once all were consumed.
+     */
+    private static final class CachingIterator implements Iterator<Arguments> {
+
+        private final Iterator<? extends Arguments> provided;
+        private final Path file;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private Path temp = null;
+        private DataOutputStream output = null;
+        private boolean done = false;
+
+        CachingIterator(Iterator<? extends Arguments> provided, Path file) {
+            this.provided = provided;
+            this.file = file;
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                temp = Files.createTempFile(file.toAbsolutePath().getParent(), "arguments", ".tmp");
+                output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+                output.writeInt(MAGIC);
+                output.writeLong(System.currentTimeMillis());
+            } catch (IOException e) {
+                logger.warn("Unable to cache arguments to {}: {}", file, e.getMessage());
+                abandon();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = provided.hasNext();
+            if (!hasNext) {
+                complete();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Arguments next() {
+            Arguments arguments = provided.next();
+            if (!done) {
+                append(arguments.get());
+            }
+            return arguments;
+        }
+
+        private void append(Object[] arguments) {
+            bytes.reset();
+            try (ObjectOutputStream serializer = new ObjectOutputStream(bytes)) {
+                serializer.writeObject(arguments);
+            } catch (NotSerializableException e) {
+                logger.info("Arguments aren't cached to {}, {} isn't serializable", file, e.getMessage());
+                abandon();
+                return;
+            } catch (IOException e) {
+                logger.warn("Unable to cache arguments to {}: {}", file, e.getMessage());
+                abandon();
+                return;
+            }
+            try {
+                output.writeInt(bytes.size());
+                bytes.writeTo(output);
+            } catch (IOException e) {
+                logger.warn("Unable to cache arguments to {}: {}", file, e.getMessage());
+                abandon();
+            }
+        }
+
+        private void complete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                output.writeInt(END);
+                output.close();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Cached arguments to {}", file);
+            } catch (IOException e) {
+                logger.warn("Unable to cache arguments to {}: {}", file, e.getMessage());
+                deleteTemp();
+            }
+        }
+
+        /**
+         * Stops caching, the temporary file is deleted unless the arguments were already moved in place.
+         */
+        void abandon() {
+            if (done) {
+                return;
+            }
+            done = true;
+            deleteTemp();
+        }
+
+        private void deleteTemp() {
+            try {
+                if (output != null) {
+                    output.close();
+                }
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                logger.debug("Unable to delete {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Resolves classes of the test through the context class loader first.
+     */
+    private static final class ContextObjectInputStream extends ObjectInputStream {
+
+        ContextObjectInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader != null) {
+                try {
+                    return Class.forName(description.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // fall back to the default resolution
+                }
+            }
+            return super.resolveClass(description);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.nsingla.junit5.extensions.internal.contexts;
+
+import org.junit.platform.commons.util.StringUtils;
+import org.junit.platform.commons.util.UnrecoverableExceptions;
+
+import java.lang.reflect.Array;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Renders arguments of a parameterized test the way {@link StringUtils#nullSafeToString(Object)} does,
+ * but stops once the given length is exceeded.
+ * <p>
+ *     Character sequences, arrays, and collections and maps relying on the JDK {@code toString()} are rendered
+ *     element by element, so a huge argument is never fully converted to a {@link String}.
+ *     Other objects are rendered through their own {@code toString()}.
+ * </p>
+ */
+final class BoundedArgumentRenderer {
+
+    private static final ClassValue<Boolean> DEFAULT_COLLECTION_TO_STRING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return declaresDefaultToString(type, AbstractCollection.class);
+        }
+    };
+
+    private static final ClassValue<Boolean> DEFAULT_MAP_TO_STRING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return declaresDefaultToString(type, AbstractMap.class);
+        }
+    };
+
+    private final StringBuilder builder = new StringBuilder();
+    private final Deque<Object> arrays = new ArrayDeque<>();
+    private final int limit;
+
+    private BoundedArgumentRenderer(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Renders the argument, up to {@code maxLength + 1} characters so truncation can be detected.
+     *
+     * @param argument  argument to render
+     * @param maxLength maximum length of interest
+     * @return rendered argument, longer than {@code maxLength} if it had to be cut
+     */
+    static String render(Object argument, int maxLength) {
+        BoundedArgumentRenderer renderer = new BoundedArgumentRenderer(maxLength + 1);
+        try {
+            renderer.append(argument);
+        } catch (Throwable throwable) {
+            UnrecoverableExceptions.rethrowIfUnrecoverable(throwable);
+            return defaultToString(argument);
+        }
+        return renderer.builder.length() > renderer.limit ? renderer.builder.substring(0, renderer.limit) : renderer.builder.toString();
+    }
+
+    private boolean isFull() {
+        return builder.length() >= limit;
+    }
+
+    /**
+     * Appends the argument as {@link StringUtils#nullSafeToString(Object)} renders it.
+     */
+    private void append(Object argument) {
+        if (argument == null) {
+            builder.append("null");
+        } else if (argument instanceof Object[]) {
+            appendDeep((Object[]) argument);
+        } else if (argument.getClass().isArray()) {
+            appendPrimitiveArray(argument);
+        } else {
+            appendValueOf(argument);
+        }
+    }
+
+    /**
+     * Appends the array as {@link java.util.Arrays#toString(int[])} and its siblings render it.
+     */
+    private void appendPrimitiveArray(Object array) {
+        builder.append('[');
+        int length = Array.getLength(array);
+        for (int i = 0; i < length && !isFull(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(Array.get(array, i));
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Appends the array as {@link java.util.Arrays#deepToString(Object[])} renders it.
+     */
+    private void appendDeep(Object[] array) {
+        arrays.push(array);
+        builder.append('[');
+        for (int i = 0; i < array.length && !isFull(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            Object element = array[i];
+            if (element == null) {
+                builder.append("null");
+            } else if (element instanceof Object[]) {
+                if (arrays.contains(element)) {
+                    builder.append("[...]");
+                } else {
+                    appendDeep((Object[]) element);
+                }
+            } else if (element.getClass().isArray()) {
+                appendPrimitiveArray(element);
+            } else {
+                appendValueOf(element);
+            }
+        }
+        builder.append(']');
+        arrays.pop();
+    }
+
+    /**
+     * Appends the value as {@link String#valueOf(Object)} renders it.
+     */
+    private void appendValueOf(Object value) {
+        if (value == null || !appendToString(value)) {
+            builder.append("null");
+        }
+    }
+
+    /**
+     * Appends the result of {@code toString()} of the value.
+     *
+     * @return false if {@code toString()} returned {@code null} and nothing was appended
+     */
+    private boolean appendToString(Object value) {
+        if (isFull()) {
+            return true;
+        }
+        if (value instanceof CharSequence) {
+            CharSequence sequence = (CharSequence) value;
+            builder.append(sequence, 0, Math.min(sequence.length(), limit - builder.length()));
+        } else if (value instanceof Collection && DEFAULT_COLLECTION_TO_STRING.get(value.getClass())) {
+            appendCollection((Collection<?>) value);
+        } else if (value instanceof Map && DEFAULT_MAP_TO_STRING.get(value.getClass())) {
+            appendMap((Map<?, ?>) value);
+        } else {
+            String string = value.toString();
+            if (string == null) {
+                return false;
+            }
+            builder.append(string);
+        }
+        return true;
+    }
+
+    private void appendCollection(Collection<?> collection) {
+        builder.append('[');
+        Iterator<?> iterator = collection.iterator();
+        for (boolean first = true; iterator.hasNext() && !isFull(); first = false) {
+            if (!first) {
+                builder.append(", ");
+            }
+            Object element = iterator.next();
+            if (element == collection) {
+                builder.append("(this Collection)");
+            } else {
+                appendValueOf(element);
+            }
+        }
+        builder.append(']');
+    }
+
+    private void appendMap(Map<?, ?> map) {
+        builder.append('{');
+        Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        for (boolean first = true; iterator.hasNext() && !isFull(); first = false) {
+            if (!first) {
+                builder.append(", ");
+            }
+            Map.Entry<?, ?> entry = iterator.next();
+            appendMapValue(map, entry.getKey());
+            builder.append('=');
+            appendMapValue(map, entry.getValue());
+        }
+        builder.append('}');
+    }
+
+    private void appendMapValue(Map<?, ?> map, Object value) {
+        if (value == map) {
+            builder.append("(this Map)");
+        } else {
+            appendValueOf(value);
+        }
+    }
+
+    private static boolean declaresDefaultToString(Class<?> type, Class<?> defaultType) {
+        try {
+            return type.getMethod("toString").getDeclaringClass() == defaultType;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String defaultToString(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        return value.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(value));
+    }
+}
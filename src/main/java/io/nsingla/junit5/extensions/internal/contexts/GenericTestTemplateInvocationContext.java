@@ -2,6 +2,7 @@ package io.nsingla.junit5.extensions.internal.contexts;
 
 import io.nsingla.junit5.extensions.RetryHandlerExtension;
 import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
 import org.junit.jupiter.api.extension.Extension;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 
@@ -17,10 +18,14 @@ import java.util.List;
 public abstract class GenericTestTemplateInvocationContext<T extends GenericTestTemplateInvocationContext<T>> implements TestTemplateInvocationContext {
 
     protected final TestTemplateIterator<T> iterator;
+    protected final RetryPolicy retryPolicy;
     protected final int failuresCount;
 
-    GenericTestTemplateInvocationContext(TestTemplateIterator<T> iterator, int failuresCount) {
+    long retryDelay = 0;
+
+    GenericTestTemplateInvocationContext(TestTemplateIterator<T> iterator, RetryPolicy retryPolicy, int failuresCount) {
         this.iterator = iterator;
+        this.retryPolicy = retryPolicy;
         this.failuresCount = failuresCount;
     }
 
@@ -68,6 +73,15 @@ public abstract class GenericTestTemplateInvocationContext<T extends GenericTest
         return failuresCount;
     }
 
+    /**
+     * Returns the retry policy of the test.
+     *
+     * @return {@link RetryPolicy} shared by all invocations of the test
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     /**
      * Checks if maximum number of failures is reached for the current context.
      *
@@ -79,10 +93,13 @@ public abstract class GenericTestTemplateInvocationContext<T extends GenericTest
     }
 
     /**
-     * Queue the current invocation context for retry.
+     * Queue the current invocation context for retry, after the delay computed by its {@link RetryPolicy}.
      */
     public void queueForRetry() {
-        iterator.add(getNextInvocationContext());
+        T nextInvocationContext = getNextInvocationContext();
+        nextInvocationContext.retryDelay = retryPolicy.getBackoff().nextDelay(nextInvocationContext.failuresCount, retryDelay);
+        iterator.addRetry(nextInvocationContext, nextInvocationContext.retryDelay);
+        markAttemptFinished();
     }
 
     /**
@@ -90,6 +107,13 @@ public abstract class GenericTestTemplateInvocationContext<T extends GenericTest
      * It shouldn't queue for retry anymore once it's marked for closing.
      */
     public void queueForClose() {
+        markAttemptFinished();
         iterator.tryClose();
     }
+
+    private void markAttemptFinished() {
+        if (failuresCount == 0) {
+            iterator.firstAttemptFinished();
+        }
+    }
 }
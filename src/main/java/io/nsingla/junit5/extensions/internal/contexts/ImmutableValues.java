@@ -0,0 +1,45 @@
+package io.nsingla.junit5.extensions.internal.contexts;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes values of well-known immutable types.
+ */
+final class ImmutableValues {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class, Byte.class, Short.class,
+        Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class, URI.class, File.class,
+        Locale.class, Currency.class, Pattern.class, Class.class);
+
+    private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return IMMUTABLE_TYPES.contains(type)
+                || Enum.class.isAssignableFrom(type)
+                || Path.class.isAssignableFrom(type)
+                || type.getName().startsWith("java.time.");
+        }
+    };
+
+    private ImmutableValues() {
+    }
+
+    /**
+     * Checks if the value is of a well-known immutable type.
+     *
+     * @param value value to check
+     * @return true if the value is {@code null} or immutable
+     */
+    static boolean isImmutable(Object value) {
+        return value == null || IMMUTABLE.get(value.getClass());
+    }
+}
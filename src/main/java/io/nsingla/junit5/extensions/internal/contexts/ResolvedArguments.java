@@ -0,0 +1,32 @@
+package io.nsingla.junit5.extensions.internal.contexts;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parameter values of an invocation of a parameterized test, resolved by its first attempt and reused by its retries.
+ */
+final class ResolvedArguments {
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final AtomicReferenceArray<Object> values;
+
+    ResolvedArguments(int parameterCount) {
+        this.values = new AtomicReferenceArray<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            values.lazySet(i, UNRESOLVED);
+        }
+    }
+
+    boolean isResolved(int index) {
+        return values.get(index) != UNRESOLVED;
+    }
+
+    Object get(int index) {
+        return values.get(index);
+    }
+
+    void set(int index, Object value) {
+        values.set(index, value);
+    }
+}
@@ -4,6 +4,7 @@ import static io.nsingla.junit5.extensions.internal.contexts.RetryParameterizedT
 import static io.nsingla.junit5.extensions.internal.contexts.RetryParameterizedTestMethodContext.ResolverType.CONVERTER;
 import static org.junit.platform.commons.util.AnnotationUtils.isAnnotated;
 
+import io.nsingla.junit5.annotations.CacheableArgument;
 import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.params.aggregator.AggregateWith;
@@ -21,9 +22,11 @@ import org.junit.platform.commons.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Copy of package-private JUnit class:
@@ -34,21 +37,49 @@ import java.util.Optional;
  *     Encapsulates access to the parameters of a parameterized test method and
  *     caches the converters and aggregators used to resolve them.
  * </p>
+ * <p>
+ *     Contexts are cached JVM-wide by test method through {@link #of(Method)}, and parameter layout is computed once.
+ *     Invocations and retries of the test may resolve their parameters concurrently,
+ *     each converter and aggregator is created once and shared by all of them.
+ * </p>
+ * <p>
+ *     Retries of an invocation reuse the values resolved by its first attempt when they are {@link CacheableArgument cacheable},
+ *     unless {@code -DcacheConvertedArguments=false}.
+ * </p>
  * @since 5.3
  */
 public class RetryParameterizedTestMethodContext {
 
+    private static final boolean CACHE_CONVERTED_ARGUMENTS = Boolean.parseBoolean(System.getProperty("cacheConvertedArguments", "true"));
+
+    private static final Map<Method, RetryParameterizedTestMethodContext> contexts = new ConcurrentHashMap<>();
+
     private final Parameter[] parameters;
-    private final Resolver[] resolvers;
-    private final List<ResolverType> resolverTypes;
+    private final AtomicReferenceArray<Resolver> resolvers;
+    private final ResolverType[] resolverTypes;
+    private final int indexOfFirstAggregator;
+    private final boolean potentiallyValidSignature;
 
-    public RetryParameterizedTestMethodContext(Method testMethod) {
+    private RetryParameterizedTestMethodContext(Method testMethod) {
         this.parameters = testMethod.getParameters();
-        this.resolvers = new Resolver[this.parameters.length];
-        this.resolverTypes = new ArrayList<>(this.parameters.length);
-        for (Parameter parameter : this.parameters) {
-            this.resolverTypes.add(isAggregator(parameter) ? AGGREGATOR : CONVERTER);
+        this.resolvers = new AtomicReferenceArray<>(this.parameters.length);
+        this.resolverTypes = new ResolverType[this.parameters.length];
+        for (int i = 0; i < this.parameters.length; i++) {
+            this.resolverTypes[i] = isAggregator(this.parameters[i]) ? AGGREGATOR : CONVERTER;
         }
+        this.indexOfFirstAggregator = Arrays.asList(this.resolverTypes).indexOf(AGGREGATOR);
+        this.potentiallyValidSignature = computePotentiallyValidSignature();
+    }
+
+    /**
+     * Returns the context of a parameterized test method, created on first use and shared JVM-wide.
+     *
+     * @param testMethod parameterized test method
+     * @return cached {@link RetryParameterizedTestMethodContext}
+     */
+    public static RetryParameterizedTestMethodContext of(Method testMethod) {
+        RetryParameterizedTestMethodContext context = contexts.get(testMethod);
+        return context != null ? context : contexts.computeIfAbsent(testMethod, RetryParameterizedTestMethodContext::new);
     }
 
     /**
@@ -69,7 +100,7 @@ public class RetryParameterizedTestMethodContext {
      * @return {@code true} if the parameter is an aggregator
      */
     boolean isAggregator(int parameterIndex) {
-        return resolverTypes.get(parameterIndex) == AGGREGATOR;
+        return resolverTypes[parameterIndex] == AGGREGATOR;
     }
 
     /**
@@ -90,6 +121,10 @@ public class RetryParameterizedTestMethodContext {
      * @return {@code true} if the method has a potentially valid signature
      */
     public boolean hasPotentiallyValidSignature() {
+        return potentiallyValidSignature;
+    }
+
+    private boolean computePotentiallyValidSignature() {
         int indexOfPreviousAggregator = -1;
         for (int i = 0; i < getParameterCount(); i++) {
             if (isAggregator(i)) {
@@ -140,7 +175,7 @@ public class RetryParameterizedTestMethodContext {
      * @return {@code true} if the method has an aggregator
      */
     public boolean hasAggregator() {
-        return resolverTypes.contains(AGGREGATOR);
+        return indexOfFirstAggregator != -1;
     }
 
     /**
@@ -150,7 +185,7 @@ public class RetryParameterizedTestMethodContext {
      * @return the index of the first aggregator, or {@code -1} if not found
      */
     int indexOfFirstAggregator() {
-        return resolverTypes.indexOf(AGGREGATOR);
+        return indexOfFirstAggregator;
     }
 
     /**
@@ -161,12 +196,44 @@ public class RetryParameterizedTestMethodContext {
         return getResolver(parameterContext).resolve(parameterContext, arguments);
     }
 
+    /**
+     * Resolve the parameter for the supplied context using the supplied
+     * arguments, reusing the value resolved by a previous attempt of the same invocation if it is cacheable.
+     */
+    Object resolve(ParameterContext parameterContext, Object[] arguments, ResolvedArguments resolvedArguments) {
+        if (!CACHE_CONVERTED_ARGUMENTS) {
+            return resolve(parameterContext, arguments);
+        }
+        int index = parameterContext.getIndex();
+        if (resolvedArguments.isResolved(index)) {
+            return resolvedArguments.get(index);
+        }
+        Resolver resolver = getResolver(parameterContext);
+        Object value = resolver.resolve(parameterContext, arguments);
+        if (resolver.isCacheable(value)) {
+            resolvedArguments.set(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * Create the holder of the values resolved by the attempts of one invocation.
+     *
+     * @return empty {@link ResolvedArguments}
+     */
+    ResolvedArguments newResolvedArguments() {
+        return new ResolvedArguments(getParameterCount());
+    }
+
     private Resolver getResolver(ParameterContext parameterContext) {
         int index = parameterContext.getIndex();
-        if (resolvers[index] == null) {
-            resolvers[index] = resolverTypes.get(index).createResolver(parameterContext);
+        Resolver resolver = resolvers.get(index);
+        if (resolver == null) {
+            // Keep the resolver created first if invocations raced, so all of them share the same converter
+            resolvers.compareAndSet(index, null, resolverTypes[index].createResolver(parameterContext));
+            resolver = resolvers.get(index);
         }
-        return resolvers[index];
+        return resolver;
     }
 
     enum ResolverType {
@@ -175,12 +242,13 @@ public class RetryParameterizedTestMethodContext {
             @Override
             Resolver createResolver(ParameterContext parameterContext) {
                 try {
+                    Boolean cacheable = declaredCacheability(parameterContext);
                     return AnnotationUtils.findAnnotation(parameterContext.getParameter(), ConvertWith.class)
                         .map(ConvertWith::value)
                         .map(clazz -> (ArgumentConverter) ReflectionUtils.newInstance(clazz))
                         .map(converter -> AnnotationConsumerInitializer.initialize(parameterContext.getParameter(), converter))
-                        .map(Converter::new)
-                        .orElse(Converter.DEFAULT);
+                        .map(converter -> new Converter(converter, cacheable != null ? cacheable : declaredCacheability(converter)))
+                        .orElseGet(() -> cacheable != null ? new Converter(DefaultArgumentConverter.INSTANCE, cacheable) : Converter.DEFAULT);
                 } catch (Exception ex) {
                     throw parameterResolutionException("Error creating ArgumentConverter", ex, parameterContext);
                 }
@@ -191,11 +259,12 @@ public class RetryParameterizedTestMethodContext {
             @Override
             Resolver createResolver(ParameterContext parameterContext) {
                 try {
+                    Boolean cacheable = declaredCacheability(parameterContext);
                     return AnnotationUtils.findAnnotation(parameterContext.getParameter(), AggregateWith.class)
                         .map(AggregateWith::value)
                         .map(clazz -> (ArgumentsAggregator) ReflectionSupport.newInstance(clazz))
-                        .map(Aggregator::new)
-                        .orElse(Aggregator.DEFAULT);
+                        .map(aggregator -> new Aggregator(aggregator, cacheable != null ? cacheable : declaredCacheability(aggregator)))
+                        .orElseGet(() -> cacheable != null ? new Aggregator(Aggregator.DEFAULT.argumentsAggregator, cacheable) : Aggregator.DEFAULT);
                 } catch (Exception ex) {
                     throw parameterResolutionException("Error creating ArgumentsAggregator", ex, parameterContext);
                 }
@@ -204,22 +273,48 @@ public class RetryParameterizedTestMethodContext {
 
         abstract Resolver createResolver(ParameterContext parameterContext);
 
+        /**
+         * Cacheability declared on the parameter, {@code null} if not declared.
+         */
+        private static Boolean declaredCacheability(ParameterContext parameterContext) {
+            return parameterContext.findAnnotation(CacheableArgument.class).map(CacheableArgument::value).orElse(null);
+        }
+
+        /**
+         * Cacheability declared on the converter or aggregator class, {@code null} if not declared.
+         */
+        private static Boolean declaredCacheability(Object resolver) {
+            return AnnotationUtils.findAnnotation(resolver.getClass(), CacheableArgument.class).map(CacheableArgument::value).orElse(null);
+        }
+
     }
 
     interface Resolver {
 
         Object resolve(ParameterContext parameterContext, Object[] arguments);
 
+        /**
+         * Whether a resolved value can be reused by retries of the same invocation.
+         */
+        boolean isCacheable(Object value);
+
     }
 
     static class Converter implements Resolver {
 
-        private static final Converter DEFAULT = new Converter(DefaultArgumentConverter.INSTANCE);
+        private static final Converter DEFAULT = new Converter(DefaultArgumentConverter.INSTANCE, null);
 
         private final ArgumentConverter argumentConverter;
+        private final Boolean cacheable;
 
-        Converter(ArgumentConverter argumentConverter) {
+        Converter(ArgumentConverter argumentConverter, Boolean cacheable) {
             this.argumentConverter = argumentConverter;
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public boolean isCacheable(Object value) {
+            return cacheable != null ? cacheable : ImmutableValues.isImmutable(value);
         }
 
         @Override
@@ -236,12 +331,20 @@ public class RetryParameterizedTestMethodContext {
 
     static class Aggregator implements Resolver {
 
-        private static final Aggregator DEFAULT = new Aggregator((accessor, context) -> accessor);
+        // The default accessor is a read-only view of the invocation arguments
+        private static final Aggregator DEFAULT = new Aggregator((accessor, context) -> accessor, true);
 
         private final ArgumentsAggregator argumentsAggregator;
+        private final Boolean cacheable;
 
-        Aggregator(ArgumentsAggregator argumentsAggregator) {
+        Aggregator(ArgumentsAggregator argumentsAggregator, Boolean cacheable) {
             this.argumentsAggregator = argumentsAggregator;
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public boolean isCacheable(Object value) {
+            return cacheable != null ? cacheable : ImmutableValues.isImmutable(value);
         }
 
         @Override
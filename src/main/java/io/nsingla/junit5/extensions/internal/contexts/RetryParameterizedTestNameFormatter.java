@@ -1,24 +1,27 @@
 package io.nsingla.junit5.extensions.internal.contexts;
 
-import static java.util.stream.Collectors.joining;
 import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
 import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_WITH_NAMES_PLACEHOLDER;
 import static org.junit.jupiter.params.ParameterizedTest.DISPLAY_NAME_PLACEHOLDER;
 import static org.junit.jupiter.params.ParameterizedTest.INDEX_PLACEHOLDER;
 
 import org.junit.platform.commons.JUnitException;
-import org.junit.platform.commons.util.StringUtils;
 
 import java.text.Format;
 import java.text.MessageFormat;
-import java.util.Arrays;
-import java.util.stream.IntStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Copy of package-private JUnit class:
  * <p>
  *     {@code org.junit.jupiter.params.ParameterizedTestNameFormatter}
  * </p>
+ * <p>
+ *     The pattern is compiled once per number of arguments into a {@link MessageFormat} template, the invocation index
+ *     being passed as an extra argument after the ones referenced by the pattern. Arguments without an explicit format are rendered by {@link BoundedArgumentRenderer},
+ *     so huge arguments are never fully converted to a {@link String}.
+ * </p>
  * @since 5.0
  */
 public class RetryParameterizedTestNameFormatter {
@@ -26,13 +29,12 @@ public class RetryParameterizedTestNameFormatter {
     private static final char ELLIPSIS = '\u2026';
 
     private final String pattern;
-    private final String displayName;
     private final RetryParameterizedTestMethodContext methodContext;
     private final int argumentMaxLength;
+    private final Map<Integer, Template> templates = new ConcurrentHashMap<>();
 
     public RetryParameterizedTestNameFormatter(String pattern, String displayName, RetryParameterizedTestMethodContext methodContext, int argumentMaxLength) {
-        this.pattern = pattern;
-        this.displayName = displayName;
+        this.pattern = pattern.replace(DISPLAY_NAME_PLACEHOLDER, displayName);
         this.methodContext = methodContext;
         this.argumentMaxLength = argumentMaxLength;
     }
@@ -48,49 +50,53 @@ public class RetryParameterizedTestNameFormatter {
     }
 
     private String formatSafely(int invocationIndex, Object[] arguments) {
-        String pattern = prepareMessageFormatPattern(invocationIndex, arguments);
-        MessageFormat format = new MessageFormat(pattern);
-        Object[] humanReadableArguments = makeReadable(format, arguments);
-        return format.format(humanReadableArguments);
+        Template template = templates.get(arguments.length);
+        if (template == null) {
+            template = templates.computeIfAbsent(arguments.length, this::compile);
+        }
+        return template.format(invocationIndex, arguments);
     }
 
-    private String prepareMessageFormatPattern(int invocationIndex, Object[] arguments) {
-        String result = pattern
-            .replace(DISPLAY_NAME_PLACEHOLDER, this.displayName)
-            .replace(INDEX_PLACEHOLDER, String.valueOf(invocationIndex));
+    private Template compile(int argumentCount) {
+        String result = pattern;
 
         if (result.contains(ARGUMENTS_WITH_NAMES_PLACEHOLDER)) {
-            result = result.replace(ARGUMENTS_WITH_NAMES_PLACEHOLDER, argumentsWithNamesPattern(arguments));
+            result = result.replace(ARGUMENTS_WITH_NAMES_PLACEHOLDER, argumentsWithNamesPattern(argumentCount));
         }
 
         if (result.contains(ARGUMENTS_PLACEHOLDER)) {
-            result = result.replace(ARGUMENTS_PLACEHOLDER, argumentsPattern(arguments));
+            result = result.replace(ARGUMENTS_PLACEHOLDER, argumentsPattern(argumentCount));
         }
 
-        return result;
+        // The index is passed after every argument referenced by the pattern, even the missing ones
+        int indexArgument = result.contains(INDEX_PLACEHOLDER)
+            ? Math.max(argumentCount, new MessageFormat(result.replace(INDEX_PLACEHOLDER, "")).getFormatsByArgumentIndex().length)
+            : -1;
+        MessageFormat format = new MessageFormat(result.replace(INDEX_PLACEHOLDER, "{" + indexArgument + "}"));
+        return new Template(format, argumentCount, indexArgument);
     }
 
-    private String argumentsWithNamesPattern(Object[] arguments) {
-        return IntStream.range(0, arguments.length)
-            .mapToObj(index -> methodContext.getParameterName(index).map(name -> name + "=").orElse("") + "{" + index + "}")
-            .collect(joining(", "));
-    }
-
-    private String argumentsPattern(Object[] arguments) {
-        return IntStream.range(0, arguments.length)
-            .mapToObj(index -> "{" + index + "}")
-            .collect(joining(", "));
+    private String argumentsWithNamesPattern(int argumentCount) {
+        StringBuilder result = new StringBuilder();
+        for (int index = 0; index < argumentCount; index++) {
+            if (index > 0) {
+                result.append(", ");
+            }
+            methodContext.getParameterName(index).ifPresent(name -> result.append(name).append('='));
+            result.append('{').append(index).append('}');
+        }
+        return result.toString();
     }
 
-    private Object[] makeReadable(MessageFormat format, Object[] arguments) {
-        Format[] formats = format.getFormatsByArgumentIndex();
-        Object[] result = Arrays.copyOf(arguments, Math.min(arguments.length, formats.length), Object[].class);
-        for (int i = 0; i < result.length; i++) {
-            if (formats[i] == null) {
-                result[i] = truncateIfExceedsMaxLength(StringUtils.nullSafeToString(arguments[i]));
+    private String argumentsPattern(int argumentCount) {
+        StringBuilder result = new StringBuilder();
+        for (int index = 0; index < argumentCount; index++) {
+            if (index > 0) {
+                result.append(", ");
             }
+            result.append('{').append(index).append('}');
         }
-        return result;
+        return result.toString();
     }
 
     private String truncateIfExceedsMaxLength(String argument) {
@@ -99,4 +105,51 @@ public class RetryParameterizedTestNameFormatter {
         }
         return argument;
     }
+
+    /**
+     * Display name pattern compiled for a given number of arguments.
+     */
+    private final class Template {
+
+        private final MessageFormat format;
+        private final int argumentCount;
+        private final int indexArgument;
+        private final boolean[] rendered;
+        private final boolean shared;
+
+        Template(MessageFormat format, int argumentCount, int indexArgument) {
+            Format[] formats = format.getFormatsByArgumentIndex();
+            this.format = format;
+            this.argumentCount = argumentCount;
+            this.indexArgument = indexArgument;
+            this.rendered = new boolean[indexArgument < 0 ? Math.min(formats.length, argumentCount) : formats.length];
+            boolean hasFormats = false;
+            for (int i = 0; i < rendered.length; i++) {
+                if (i >= argumentCount && i != indexArgument && formats[i] != null) {
+                    format.setFormatByArgumentIndex(i, null); // Missing arguments are written as their reference
+                }
+                rendered[i] = i < argumentCount && formats[i] == null;
+                hasFormats |= i < argumentCount && formats[i] != null;
+            }
+            // Without sub-formats, formatting doesn't touch any mutable state of the MessageFormat
+            this.shared = !hasFormats;
+        }
+
+        String format(int invocationIndex, Object[] arguments) {
+            Object[] formatArguments = new Object[rendered.length];
+            for (int i = 0; i < formatArguments.length; i++) {
+                if (i == indexArgument) {
+                    formatArguments[i] = String.valueOf(invocationIndex);
+                } else if (i >= argumentCount) {
+                    formatArguments[i] = "{" + i + "}";
+                } else {
+                    formatArguments[i] = rendered[i]
+                        ? truncateIfExceedsMaxLength(BoundedArgumentRenderer.render(arguments[i], argumentMaxLength))
+                        : arguments[i];
+                }
+            }
+            MessageFormat messageFormat = shared ? format : (MessageFormat) format.clone();
+            return messageFormat.format(formatArguments);
+        }
+    }
 }
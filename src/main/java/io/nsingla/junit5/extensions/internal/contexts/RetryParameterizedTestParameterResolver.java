@@ -19,10 +19,13 @@ class RetryParameterizedTestParameterResolver implements ParameterResolver {
 
     private final RetryParameterizedTestMethodContext methodContext;
     private final Object[] arguments;
+    private final ResolvedArguments resolvedArguments;
 
-    RetryParameterizedTestParameterResolver(RetryParameterizedTestMethodContext methodContext, Object[] arguments) {
+    RetryParameterizedTestParameterResolver(RetryParameterizedTestMethodContext methodContext, Object[] arguments,
+                                            ResolvedArguments resolvedArguments) {
         this.methodContext = methodContext;
         this.arguments = arguments;
+        this.resolvedArguments = resolvedArguments;
     }
 
     @Override
@@ -53,6 +56,6 @@ class RetryParameterizedTestParameterResolver implements ParameterResolver {
 
     @Override
     public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) throws ParameterResolutionException {
-        return this.methodContext.resolve(parameterContext, this.arguments);
+        return this.methodContext.resolve(parameterContext, this.arguments, this.resolvedArguments);
     }
 }
@@ -4,6 +4,7 @@ import io.nsingla.junit5.annotations.RetryFailedParameterizedTest;
 import io.nsingla.junit5.extensions.RetryHandlerExtension;
 import io.nsingla.junit5.extensions.RetryParameterizedTestExtension;
 import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
 import org.junit.jupiter.api.extension.Extension;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 
@@ -24,31 +25,48 @@ public class RetryParameterizedTestTemplateInvocationContext extends GenericTest
     private final RetryParameterizedTestMethodContext methodContext;
     private final Object[] arguments;
     private final int invocationIndex;
+    private final ResolvedArguments resolvedArguments;
+
+    private volatile String displayName;
 
     public RetryParameterizedTestTemplateInvocationContext(RetryParameterizedTestNameFormatter formatter, RetryParameterizedTestMethodContext methodContext,
-                                                           Object[] arguments, int invocationIndex,
+                                                           Object[] arguments, int invocationIndex, RetryPolicy retryPolicy,
                                                            TestTemplateIterator<RetryParameterizedTestTemplateInvocationContext> iterator) {
-        this(formatter, methodContext, arguments, 0, invocationIndex, iterator);
+        this(formatter, methodContext, arguments, 0, invocationIndex, retryPolicy, iterator, null, methodContext.newResolvedArguments());
     }
 
     private RetryParameterizedTestTemplateInvocationContext(RetryParameterizedTestNameFormatter formatter, RetryParameterizedTestMethodContext methodContext,
-                                                            Object[] arguments, int failuresCount, int invocationIndex,
-                                                            TestTemplateIterator<RetryParameterizedTestTemplateInvocationContext> iterator) {
-        super(iterator, failuresCount);
+                                                            Object[] arguments, int failuresCount, int invocationIndex, RetryPolicy retryPolicy,
+                                                            TestTemplateIterator<RetryParameterizedTestTemplateInvocationContext> iterator, String displayName,
+                                                            ResolvedArguments resolvedArguments) {
+        super(iterator, retryPolicy, failuresCount);
         this.formatter = formatter;
         this.methodContext = methodContext;
         this.arguments = arguments;
         this.invocationIndex = invocationIndex;
+        this.displayName = displayName;
+        this.resolvedArguments = resolvedArguments;
     }
 
+    /**
+     * Returns the display name of the invocation, formatted once and shared by its retries.
+     *
+     * @return {@link String} display name
+     */
     @Override
     String getDisplayName() {
-        return formatter.format(invocationIndex, arguments);
+        String name = displayName;
+        if (name == null) {
+            name = formatter.format(invocationIndex, arguments);
+            displayName = name;
+        }
+        return name;
     }
 
     @Override
     RetryParameterizedTestTemplateInvocationContext getNextInvocationContext() {
-        return new RetryParameterizedTestTemplateInvocationContext(formatter, methodContext, arguments, failuresCount + 1, invocationIndex, iterator);
+        return new RetryParameterizedTestTemplateInvocationContext(formatter, methodContext, arguments, failuresCount + 1, invocationIndex, retryPolicy, iterator,
+            getDisplayName(), resolvedArguments);
     }
 
     @Override
@@ -59,7 +77,7 @@ public class RetryParameterizedTestTemplateInvocationContext extends GenericTest
     @Override
     public List<Extension> getAdditionalExtensions() {
         List<Extension> extensions = new ArrayList<>();
-        extensions.add(new RetryParameterizedTestParameterResolver(this.methodContext, this.arguments));
+        extensions.add(new RetryParameterizedTestParameterResolver(this.methodContext, this.arguments, this.resolvedArguments));
         extensions.addAll(super.getAdditionalExtensions());
         return extensions;
     }
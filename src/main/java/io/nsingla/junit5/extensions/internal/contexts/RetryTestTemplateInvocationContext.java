@@ -4,6 +4,7 @@ import io.nsingla.junit5.annotations.RetryFailedTest;
 import io.nsingla.junit5.extensions.RetryHandlerExtension;
 import io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator;
 import io.nsingla.junit5.extensions.RetryTestExtension;
+import io.nsingla.junit5.extensions.internal.retry.RetryPolicy;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 
 /**
@@ -18,12 +19,13 @@ public class RetryTestTemplateInvocationContext extends GenericTestTemplateInvoc
 
     private final String displayName;
 
-    public RetryTestTemplateInvocationContext(String displayName, TestTemplateIterator<RetryTestTemplateInvocationContext> iterator) {
-        this(displayName, 0, iterator);
+    public RetryTestTemplateInvocationContext(String displayName, RetryPolicy retryPolicy, TestTemplateIterator<RetryTestTemplateInvocationContext> iterator) {
+        this(displayName, retryPolicy, 0, iterator);
     }
 
-    private RetryTestTemplateInvocationContext(String displayName, int failuresCount, TestTemplateIterator<RetryTestTemplateInvocationContext> iterator) {
-        super(iterator, failuresCount);
+    private RetryTestTemplateInvocationContext(String displayName, RetryPolicy retryPolicy, int failuresCount,
+                                               TestTemplateIterator<RetryTestTemplateInvocationContext> iterator) {
+        super(iterator, retryPolicy, failuresCount);
         this.displayName = displayName;
     }
 
@@ -34,7 +36,7 @@ public class RetryTestTemplateInvocationContext extends GenericTestTemplateInvoc
 
     @Override
     RetryTestTemplateInvocationContext getNextInvocationContext() {
-        return new RetryTestTemplateInvocationContext(displayName, failuresCount + 1, iterator);
+        return new RetryTestTemplateInvocationContext(displayName, retryPolicy, failuresCount + 1, iterator);
     }
 
     @Override
@@ -0,0 +1,130 @@
+package io.nsingla.junit5.extensions.internal.iterators;
+
+import org.junit.platform.commons.util.ExceptionUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator of streams opened concurrently, returned in the order of their suppliers.
+ * <p>
+ *     Every supplier is started right away on a shared pool of at most {@code argumentsProviderConcurrency}
+ *     (defaults to {@code 4}) daemon threads, so slow sources are opened in parallel while
+ *     elements keep being consumed in declaration order. Waiting for a stream goes through {@link CompletableFuture#join()},
+ *     which compensates ForkJoin workers. Streams opened but not returned are closed by {@link #close()}.
+ * </p>
+ *
+ * @param <T> type of stream elements
+ */
+public class PrefetchedStreamsIterator<T> implements Iterator<Stream<? extends T>>, AutoCloseable {
+
+    private static final int CONCURRENCY = Integer.parseInt(System.getProperty("argumentsProviderConcurrency", "4"));
+
+    private final Deque<CompletableFuture<Stream<? extends T>>> streams = new ArrayDeque<>();
+
+    private PrefetchedStreamsIterator(List<Supplier<Stream<? extends T>>> suppliers) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (Supplier<Stream<? extends T>> supplier : suppliers) {
+            streams.add(CompletableFuture.supplyAsync(() -> open(supplier, classLoader), Holder.EXECUTOR));
+        }
+    }
+
+    /**
+     * Returns an iterator opening the streams of the given suppliers. Streams are opened concurrently when there is more
+     * than one supplier and {@code argumentsProviderConcurrency} is greater than {@code 1}, lazily by the consuming thread otherwise.
+     *
+     * @param suppliers suppliers of the streams, in the order the streams are returned
+     * @param <T>       type of stream elements
+     * @return iterator of the opened streams
+     */
+    public static <T> Iterator<Stream<? extends T>> of(List<Supplier<Stream<? extends T>>> suppliers) {
+        if (suppliers.size() <= 1 || CONCURRENCY <= 1) {
+            return suppliers.stream().<Stream<? extends T>>map(Supplier::get).iterator();
+        }
+        return new PrefetchedStreamsIterator<>(suppliers);
+    }
+
+    private static <T> Stream<? extends T> open(Supplier<Stream<? extends T>> supplier, ClassLoader classLoader) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            return prefetch(supplier.get());
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static <E> Stream<E> prefetch(Stream<E> stream) {
+        Spliterator<E> spliterator;
+        List<E> first = new ArrayList<>(1);
+        try {
+            spliterator = stream.spliterator();
+            if (!spliterator.tryAdvance(first::add)) {
+                return Stream.<E>empty().onClose(stream::close);
+            }
+        } catch (Throwable t) {
+            stream.close();
+            throw t;
+        }
+        return Stream.concat(first.stream(), StreamSupport.stream(spliterator, false)).onClose(stream::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !streams.isEmpty();
+    }
+
+    @Override
+    public Stream<? extends T> next() {
+        if (streams.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return streams.poll().join();
+        } catch (CompletionException e) {
+            throw ExceptionUtils.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        CompletableFuture<Stream<? extends T>> stream;
+        while ((stream = streams.poll()) != null) {
+            if (!stream.cancel(false)) {
+                stream.thenAccept(Stream::close);
+            }
+        }
+    }
+
+    private static final class Holder {
+
+        private static final ExecutorService EXECUTOR = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            AtomicInteger threadCount = new AtomicInteger(0);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(CONCURRENCY, CONCURRENCY, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "arguments-provider-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.nsingla.junit5.extensions.internal.iterators;
+
+import org.junit.platform.commons.util.ExceptionUtils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Iterator lazily concatenating streams, each stream is opened once the previous one is consumed and closed.
+ * <p>
+ *     Unlike {@link Stream#flatMap(java.util.function.Function)} consumed through {@link Stream#iterator()},
+ *     elements are pulled one at a time and no stream is buffered.
+ * </p>
+ *
+ * @param <T> type of elements
+ */
+public class StreamConcatIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Iterator<? extends Stream<? extends T>> streams;
+
+    private Stream<? extends T> current = null;
+    private Iterator<? extends T> currentIterator = Collections.emptyIterator();
+
+    /**
+     * Creates a new iterator.
+     *
+     * @param streams iterator of the streams to concatenate, consumed lazily, closed with this iterator if {@link AutoCloseable}
+     */
+    public StreamConcatIterator(Iterator<? extends Stream<? extends T>> streams) {
+        this.streams = streams;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentIterator.hasNext()) {
+            closeCurrent();
+            if (!streams.hasNext()) {
+                return false;
+            }
+            current = streams.next();
+            currentIterator = current.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentIterator.next();
+    }
+
+    private void closeCurrent() {
+        if (current != null) {
+            current.close();
+            current = null;
+            currentIterator = Collections.emptyIterator();
+        }
+    }
+
+    @Override
+    public void close() {
+        closeCurrent();
+        if (streams instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) streams).close();
+            } catch (Exception e) {
+                throw ExceptionUtils.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package io.nsingla.junit5.extensions.internal.iterators;
 
+import io.nsingla.junit5.extensions.internal.retry.DeferredRetryPass;
+import io.nsingla.junit5.extensions.internal.retry.RetryScheduler;
 import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -17,22 +18,61 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * {@link TestTemplateInvocationContext} iterator that can be consumed in via Streams.
  * It keeps stream active until end is reached.
+ * <p>
+ *     First attempts are pulled lazily from a source iterator, while retries are queued as failures happen.
+ *     At most {@code argumentsLookAhead} (defaults to {@code 256}) first attempts are pulled from the source and not finished yet,
+ *     so memory and time to the first invocation don't depend on the size of the source. Retries waiting for a delay
+ *     or for the deferred retry pass don't hold the window.
+ *     The iterator ends once the source is exhausted and every pulled invocation is finished, including its retries.
+ * </p>
+ * <p>
+ *     The iterator doesn't own any threads. Jupiter consumes the invocations of a template synchronously, so when no context
+ *     is available yet (e.g. a retry waits for its delay), the consuming thread stays parked until one is queued. It waits
+ *     through {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}, so the ForkJoin pool can start a compensating
+ *     worker and other tests keep running, but the waiting thread itself isn't given back to the pool. To bound the workers
+ *     started this way, retries are only delayed for a limited number of templates at once, see {@link RetryScheduler}.
+ * </p>
  *
  * @param <T> type of {@link TestTemplateInvocationContext}
  */
 public class TestTemplateIterator<T extends TestTemplateInvocationContext> implements Iterator<T>, AutoCloseable {
 
+    private static final int LOOK_AHEAD = Integer.parseInt(System.getProperty("argumentsLookAhead", "256"));
+
     final BlockingQueue<T> queue = new LinkedBlockingQueue<>();
-    final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     final AtomicBoolean closed = new AtomicBoolean(false);
-    final AtomicInteger endCount = new AtomicInteger(0);
+    final AtomicBoolean terminated = new AtomicBoolean(false);
+    final AtomicInteger openInvocations = new AtomicInteger(0);
+    final AtomicInteger pendingFirstAttempts = new AtomicInteger(0);
+
+    private Iterator<? extends T> source = Collections.emptyIterator();
+    private volatile boolean sourceExhausted = false;
+    private volatile String templateId = null;
+    private volatile DeferredRetryPass deferredRetryPass = null;
+
+    private final Object delayLock = new Object();
+    private int delayedRetries = 0;
 
-    private int endCountGoal = 1;
+    private final List<T> deferred = new ArrayList<>();
+    private boolean deferring = false;
+    private boolean deferredRegistered = false;
+
+    private final QueueBlocker blocker = new QueueBlocker();
 
     private T next = null;
 
     private static final TestTemplateInvocationContext END = new TestTemplateInvocationContext() {};
+    private static final TestTemplateInvocationContext WAKE_UP = new TestTemplateInvocationContext() {};
+
+    /**
+     * Sets the source of first attempts, consumed lazily by the consuming thread.
+     *
+     * @param source iterator of first attempt contexts
+     */
+    public void setSource(Iterator<? extends T> source) {
+        this.source = source;
+    }
 
     /**
      * Adds a new invocation context to the iterator.
@@ -48,53 +88,150 @@ public class TestTemplateIterator<T extends TestTemplateInvocationContext> imple
     }
 
     /**
-     * Sets the end count goal for this iterator.
-     * End goal marks how many times {@link #close()} needs to be called to close the iterator.
+     * Enables deferred retries for this iterator.
+     * Retries added through {@link #addRetry(TestTemplateInvocationContext)} are held back until {@link DeferredRetryPass} is released.
      *
-     * @param endCountGoal expected number of close calls
+     * @param deferredRetryPass pass of the current run
+     * @param templateId        unique id of the test template this iterator belongs to
      */
-    public void setEndCountGoal(int endCountGoal) {
-        this.endCountGoal = endCountGoal;
+    public void enableDeferredRetries(DeferredRetryPass deferredRetryPass, String templateId) {
+        synchronized (deferred) {
+            this.deferredRetryPass = deferredRetryPass;
+            this.templateId = templateId;
+            this.deferring = true;
+        }
     }
 
     /**
-     * A blocking next context availability check.
-     * Returns true if previous (not consumed yet) or next context is set.
-     * <p>
-     *     It waits (blocking the thread) if next context is not available yet.
-     * </p>
+     * Adds a retry invocation context to the iterator.
+     * It's queued right away unless deferred retries are enabled and the deferred retry pass isn't released yet.
      *
-     * @return true if previous or next element is set, false if iterator is closed
+     * @param value {@link TestTemplateInvocationContext} to retry
      */
-    private boolean hasNextWait() {
-        if (next != null) {
-            return next != END;
+    public void addRetry(T value) {
+        synchronized (deferred) {
+            if (deferring && !deferredRegistered) {
+                deferredRegistered = true;
+                deferring = deferredRetryPass.defer(this::releaseDeferred);
+            }
+            if (deferring) {
+                deferred.add(value);
+            } else {
+                add(value);
+            }
         }
-        try {
-            next = queue.take();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Adds a retry invocation context to the iterator once the delay expired.
+     * The delay is timed by {@link RetryScheduler}, the consuming thread stays parked in the meantime unless other contexts are queued.
+     * The retry is added right away if too many templates already wait for delayed retries.
+     *
+     * @param value       {@link TestTemplateInvocationContext} to retry
+     * @param delayMillis delay in milliseconds, {@code 0} to retry right away
+     */
+    public void addRetry(T value, long delayMillis) {
+        if (delayMillis > 0 && reserveDelay()) {
+            RetryScheduler.schedule(() -> {
+                try {
+                    addRetry(value);
+                } finally {
+                    delayExpired();
+                }
+            }, delayMillis);
+        } else {
+            addRetry(value);
         }
-        return next != END;
     }
 
-    @Override
-    public boolean hasNext() {
-        if (executor.isShutdown() || executor.isTerminated()) {
-            return false;
+    /**
+     * Counts a delayed retry of this template, taking a waiting template slot for the first one.
+     *
+     * @return false if no slot is available and the retry shouldn't be delayed
+     */
+    private boolean reserveDelay() {
+        synchronized (delayLock) {
+            if (delayedRetries == 0 && !RetryScheduler.tryReserveWaitingTemplate()) {
+                return false;
+            }
+            delayedRetries++;
+            return true;
         }
-        Future<Boolean> cf = CompletableFuture.supplyAsync(this::hasNextWait, executor);
-        boolean result = false;
-        try {
-            result = cf.get();
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
+    }
+
+    private void delayExpired() {
+        synchronized (delayLock) {
+            if (--delayedRetries == 0) {
+                RetryScheduler.releaseWaitingTemplate();
+            }
         }
-        if (!result) {
-            executor.shutdownNow(); // At this point nothing should wait on pool
-            queue.clear();
+    }
+
+    private void releaseDeferred() {
+        synchronized (deferred) {
+            deferring = false;
+            deferred.forEach(this::add);
+            deferred.clear();
+        }
+    }
+
+    /**
+     * Marks the first attempt of an invocation as finished.
+     * Once the source is exhausted and all first attempts are finished, {@link DeferredRetryPass} is notified.
+     */
+    @SuppressWarnings("unchecked")
+    public void firstAttemptFinished() {
+        if (pendingFirstAttempts.decrementAndGet() == 0 && sourceExhausted) {
+            notifyFirstAttemptsFinished();
+        }
+        queue.add((T) WAKE_UP); // Let the consumer pull the next first attempt
+    }
+
+    private void notifyFirstAttemptsFinished() {
+        String id = templateId;
+        if (id != null) {
+            deferredRetryPass.firstAttemptsFinished(id);
         }
-        return result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!terminated.get()) {
+            if (next == null) {
+                next = queue.poll();
+            }
+            if (next == WAKE_UP) {
+                next = null;
+                continue;
+            }
+            if (next == END) {
+                break;
+            }
+            if (next != null) {
+                return true;
+            }
+            if (!sourceExhausted && pendingFirstAttempts.get() < LOOK_AHEAD) {
+                if (source.hasNext()) {
+                    next = source.next();
+                    openInvocations.incrementAndGet();
+                    pendingFirstAttempts.incrementAndGet();
+                    return true;
+                }
+                sourceExhausted = true;
+                if (pendingFirstAttempts.get() == 0) {
+                    notifyFirstAttemptsFinished();
+                }
+            }
+            if (sourceExhausted && openInvocations.get() == 0) {
+                break;
+            }
+            next = awaitNext();
+            if (next == null) {
+                break;
+            }
+        }
+        terminate();
+        return false;
     }
 
     @Override
@@ -108,15 +245,29 @@ public class TestTemplateIterator<T extends TestTemplateInvocationContext> imple
     }
 
     /**
-     * Mark iterator for closing if {@link #endCountGoal} is reached.
-     * Existing contexts will be consumed before it's completely closed.
+     * Parks the consuming thread until the next context is queued, letting the ForkJoin pool compensate it.
+     * Only the consuming thread calls this method, so the blocker instance is reused.
+     *
+     * @return next context, or {@code null} if the waiting thread was interrupted
+     */
+    private T awaitNext() {
+        try {
+            ForkJoinPool.managedBlock(blocker);
+            return blocker.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Marks an invocation as finished, no retry of it will be added anymore.
+     * The iterator ends once the source is exhausted and all invocations are finished.
      */
     @SuppressWarnings("unchecked")
     public void tryClose() {
-        if (endCount.incrementAndGet() == endCountGoal) {
-            closed.set(true);
-            queue.add((T) END);
-        }
+        openInvocations.decrementAndGet();
+        queue.add((T) WAKE_UP); // Let the consumer pull from the source or end
     }
 
     /**
@@ -125,9 +276,45 @@ public class TestTemplateIterator<T extends TestTemplateInvocationContext> imple
      * {@inheritDoc}
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void close() {
         closed.set(true);
-        executor.shutdownNow(); // At this point nothing should wait on pool
+        terminated.set(true);
         queue.clear();
+        queue.add((T) END); // Wake up the consumer if it's still waiting
+    }
+
+    private void terminate() {
+        closed.set(true);
+        terminated.set(true);
+        next = null;
+        queue.clear();
+    }
+
+    /**
+     * {@link ForkJoinPool.ManagedBlocker} waiting for the next element of {@link #queue}.
+     */
+    private final class QueueBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private T item;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (item == null) {
+                item = queue.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return item != null || (item = queue.poll()) != null;
+        }
+
+        T take() {
+            T result = item;
+            item = null;
+            return result;
+        }
     }
 }
@@ -0,0 +1,67 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import io.nsingla.junit5.history.FlakinessLedger;
+import io.nsingla.junit5.history.FlakinessLedger.Outcome;
+
+/**
+ * Derives the number of retries of a test from its outcomes recorded in {@link FlakinessLedger}.
+ *
+ * <ul>
+ *     <li>Tests without recorded outcomes get the maximum number of retries.</li>
+ *     <li>Tests that passed on a retry get a share of the maximum proportional to how often retrying them helped,
+ *     at least one retry.</li>
+ *     <li>Tests that failed all their retries and never passed on one aren't retried anymore, until they fail again without
+ *     being retried: the next failure after that gets a single retry to find out if they became flaky.</li>
+ *     <li>Tests that failed without being retried, and never failed all their retries, get a single retry to find out if they're flaky.</li>
+ *     <li>Tests that always passed on the first attempt aren't retried.</li>
+ * </ul>
+ */
+public final class AdaptiveRetryLimit {
+
+    private AdaptiveRetryLimit() {
+    }
+
+    /**
+     * Returns the number of retries for a test.
+     *
+     * @param uniqueId   unique id of the test
+     * @param maxRetries maximum number of retries
+     * @return number of retries, between {@code 0} and {@code maxRetries}
+     */
+    public static int of(String uniqueId, int maxRetries) {
+        return fromOutcomes(FlakinessLedger.getInstance().getOutcomes(uniqueId), maxRetries);
+    }
+
+    /**
+     * Returns the number of retries for a test with the given outcomes.
+     *
+     * @param outcomes   {@link Outcome} codes of the test, oldest first
+     * @param maxRetries maximum number of retries
+     * @return number of retries, between {@code 0} and {@code maxRetries}
+     */
+    static int fromOutcomes(CharSequence outcomes, int maxRetries) {
+        if (outcomes.length() == 0 || maxRetries <= 0) {
+            return maxRetries;
+        }
+        int passedOnRetry = 0;
+        int failed = 0;
+        int lastFailed = -1;
+        int lastFailedNotRetried = -1;
+        for (int i = 0; i < outcomes.length(); i++) {
+            char code = outcomes.charAt(i);
+            if (code == Outcome.PASSED_ON_RETRY.getCode()) {
+                passedOnRetry++;
+            } else if (code == Outcome.FAILED.getCode()) {
+                failed++;
+                lastFailed = i;
+            } else if (code == Outcome.FAILED_NOT_RETRIED.getCode()) {
+                lastFailedNotRetried = i;
+            }
+        }
+        if (passedOnRetry > 0) {
+            return Math.max(1, (int) Math.ceil((double) maxRetries * passedOnRetry / (passedOnRetry + failed)));
+        }
+        // Probe with a single retry if the test failed without retry since it last failed all its retries
+        return lastFailedNotRetried > lastFailed ? 1 : 0;
+    }
+}
@@ -0,0 +1,224 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import io.nsingla.junit5.extensions.RetryHandlerExtension;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.api.parallel.ResourceLocks;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gate holding back deferred retries until every test of the run has finished its first attempt.
+ * <p>
+ *     Enabled with {@code -DdeferRetries=true}. Every test and test template of the {@link TestPlan} is tracked until
+ *     its first attempt finishes; once none is left, all deferred retries are released together as a final parallel pass.
+ *     Retries are never deferred when the run isn't tracked, once the pass is released,
+ *     or when more than {@code deferredRetryLimit} (defaults to {@code 128}) templates are already waiting.
+ * </p>
+ * <p>
+ *     A waiting template keeps holding the locks of its ancestors, so templates of classes using exclusive resources
+ *     ({@link ResourceLock @ResourceLock}, {@link Isolated @Isolated}) or not running concurrently never wait, and tests of
+ *     such classes don't hold the pass back either.
+ * </p>
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}. Every execution of a test plan has its own
+ * state, bound to the templates of the engine execution through the store of the root {@link ExtensionContext}.
+ */
+public class DeferredRetryPass implements TestExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeferredRetryPass.class);
+    private static final String PARALLEL_EXECUTION_ENABLED = "junit.jupiter.execution.parallel.enabled";
+    private static final int WAITING_TEMPLATES_LIMIT = Integer.parseInt(System.getProperty("deferredRetryLimit", "128"));
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(DeferredRetryPass.class);
+
+    // Passes of the test plans being executed, latest first: a test may launch a nested run
+    private static final Deque<DeferredRetryPass> executing = new ConcurrentLinkedDeque<>();
+    private static final Map<Class<?>, Boolean> exclusiveResourceClasses = new ConcurrentHashMap<>();
+
+    private final Set<String> pendingFirstAttempts = ConcurrentHashMap.newKeySet();
+    private final Queue<Runnable> waitingTemplates = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingTemplatesCount = new AtomicInteger(0);
+
+    private volatile boolean released = true;
+
+    /**
+     * Returns the pass retries of the given test template can be deferred to.
+     * Deferring requires parallel execution, otherwise a waiting template would block the rest of the run.
+     *
+     * @param context {@link ExtensionContext} of the test template
+     * @return pass of the current run, empty if deferred retries are disabled or the template doesn't run concurrently
+     */
+    public static Optional<DeferredRetryPass> of(ExtensionContext context) {
+        if (!RetryHandlerExtension.DEFER_RETRIES
+            || !context.getConfigurationParameter(PARALLEL_EXECUTION_ENABLED, Boolean::parseBoolean).orElse(false)
+            || !isConcurrent(context)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(context.getRoot().getStore(NAMESPACE)
+            .getOrComputeIfAbsent(DeferredRetryPass.class, key -> executing.peekFirst(), DeferredRetryPass.class));
+    }
+
+    /**
+     * Checks that the template and its ancestors (but the engine) run concurrently and don't use exclusive resources.
+     */
+    private static boolean isConcurrent(ExtensionContext context) {
+        for (ExtensionContext current = context; current.getParent().isPresent(); current = current.getParent().get()) {
+            if (current.getExecutionMode() != ExecutionMode.CONCURRENT) {
+                return false;
+            }
+        }
+        return context.getTestClass().map(testClass -> !usesExclusiveResources(testClass)).orElse(false);
+    }
+
+    /**
+     * Checks if a test class, the classes enclosing it, or any of their methods and nested classes use exclusive resources.
+     * Jupiter locks the resources of all the descendants of a top-level class while it runs.
+     *
+     * @param testClass test class
+     * @return true if the top-level class of the test class uses exclusive resources
+     */
+    static boolean usesExclusiveResources(Class<?> testClass) {
+        Class<?> topLevelClass = testClass;
+        while (ReflectionUtils.isInnerClass(topLevelClass)) {
+            topLevelClass = topLevelClass.getEnclosingClass();
+        }
+        return exclusiveResourceClasses.computeIfAbsent(topLevelClass, DeferredRetryPass::declaresExclusiveResources);
+    }
+
+    private static boolean declaresExclusiveResources(Class<?> testClass) {
+        return hasExclusiveResources(testClass)
+            || !ReflectionSupport.findMethods(testClass, DeferredRetryPass::hasExclusiveResources, HierarchyTraversalMode.TOP_DOWN).isEmpty()
+            || ReflectionSupport.findNestedClasses(testClass, ReflectionUtils::isInnerClass).stream().anyMatch(DeferredRetryPass::declaresExclusiveResources);
+    }
+
+    private static boolean hasExclusiveResources(AnnotatedElement element) {
+        return AnnotationSupport.isAnnotated(element, Isolated.class)
+            || AnnotationSupport.isAnnotated(element, ResourceLock.class)
+            || AnnotationSupport.isAnnotated(element, ResourceLocks.class);
+    }
+
+    /**
+     * Registers a template waiting for the deferred retry pass.
+     *
+     * @param release callback queuing the deferred retries of the template
+     * @return false if the retries shouldn't be deferred and have to be queued right away
+     */
+    public boolean defer(Runnable release) {
+        if (released) {
+            return false;
+        }
+        if (waitingTemplatesCount.incrementAndGet() > WAITING_TEMPLATES_LIMIT) {
+            waitingTemplatesCount.decrementAndGet();
+            return false;
+        }
+        waitingTemplates.add(release);
+        if (released) {
+            drain(); // Pass was released in the meantime
+        }
+        return true;
+    }
+
+    /**
+     * Marks the first attempt(s) of a test template as finished.
+     *
+     * @param uniqueId unique id of the test template
+     */
+    public void firstAttemptsFinished(String uniqueId) {
+        if (pendingFirstAttempts.remove(uniqueId) && pendingFirstAttempts.isEmpty()) {
+            release();
+        }
+    }
+
+    private void release() {
+        if (!released) {
+            released = true;
+            logger.debug("All first attempts finished, releasing {} template(s) with deferred retries.", waitingTemplatesCount.get());
+        }
+        drain();
+    }
+
+    private void drain() {
+        Runnable release;
+        while ((release = waitingTemplates.poll()) != null) {
+            waitingTemplatesCount.decrementAndGet();
+            release.run();
+        }
+    }
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if (!RetryHandlerExtension.DEFER_RETRIES) {
+            return;
+        }
+        pendingFirstAttempts.clear();
+        testPlan.getRoots().stream()
+            .flatMap(root -> testPlan.getDescendants(root).stream())
+            .filter(identifier -> identifier.getSource().filter(MethodSource.class::isInstance).map(MethodSource.class::cast)
+                .filter(source -> !usesExclusiveResources(source)).isPresent())
+            .forEach(identifier -> pendingFirstAttempts.add(identifier.getUniqueId()));
+        released = pendingFirstAttempts.isEmpty();
+        executing.addFirst(this);
+    }
+
+    private static boolean usesExclusiveResources(MethodSource source) {
+        try {
+            return usesExclusiveResources(source.getJavaClass());
+        } catch (JUnitException e) {
+            return false; // Not a class of this class loader, tracked like any test
+        }
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        executionEnded(testIdentifier);
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        executionEnded(testIdentifier);
+    }
+
+    private void executionEnded(TestIdentifier testIdentifier) {
+        if (released) {
+            return;
+        }
+        String uniqueId = testIdentifier.getUniqueId();
+        pendingFirstAttempts.remove(uniqueId);
+        // Descendants of skipped or failed containers are never reported
+        if (testIdentifier.isContainer()) {
+            pendingFirstAttempts.removeIf(pending -> pending.startsWith(uniqueId + "/"));
+        }
+        if (pendingFirstAttempts.isEmpty()) {
+            release();
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        executing.remove(this);
+        pendingFirstAttempts.clear();
+        release();
+    }
+}
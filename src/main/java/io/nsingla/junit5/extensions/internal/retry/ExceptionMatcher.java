@@ -0,0 +1,88 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import java.util.Collection;
+
+/**
+ * Matches exceptions against a fixed set of exception types.
+ * The result is computed once per exception class and cached, no type hierarchy is walked again on later failures.
+ */
+public final class ExceptionMatcher {
+
+    private static final int MAX_CAUSE_DEPTH = 32;
+
+    private final Class<?>[] types;
+    private final ClassValue<Boolean> matches = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> matchedType : types) {
+                if (matchedType.isAssignableFrom(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    private ExceptionMatcher(Class<?>[] types) {
+        this.types = types;
+    }
+
+    /**
+     * Creates a matcher of the given exception types and their subtypes.
+     *
+     * @param types exception types to match
+     * @return new {@link ExceptionMatcher}
+     */
+    public static ExceptionMatcher of(Class<?>... types) {
+        return new ExceptionMatcher(types.clone());
+    }
+
+    /**
+     * Creates a matcher of the given exception types and their subtypes.
+     *
+     * @param types exception types to match
+     * @return new {@link ExceptionMatcher}
+     */
+    public static ExceptionMatcher of(Collection<Class<?>> types) {
+        return new ExceptionMatcher(types.toArray(new Class<?>[0]));
+    }
+
+    /**
+     * Checks if the matcher has no exception type, so it never matches.
+     *
+     * @return true if no exception type is set
+     */
+    public boolean isEmpty() {
+        return types.length == 0;
+    }
+
+    /**
+     * Checks if the exception is an instance of one of the types.
+     *
+     * @param throwable exception to check
+     * @return true if the exception matches
+     */
+    public boolean matches(Throwable throwable) {
+        return types.length > 0 && matches.get(throwable.getClass());
+    }
+
+    /**
+     * Checks if the exception or any of its causes is an instance of one of the types.
+     *
+     * @param throwable exception to check
+     * @return true if the exception or one of its causes matches
+     */
+    public boolean matchesCauseChain(Throwable throwable) {
+        if (types.length == 0) {
+            return false;
+        }
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (matches.get(current.getClass())) {
+                return true;
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import io.nsingla.junit5.annotations.Backoff;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes the delay before the next retry of a failed test.
+ * <p>
+ *     Values not set on the annotation are read from {@code retryBackoff}, {@code retryBackoffDelay}
+ *     and {@code retryBackoffMaxDelay} system properties. Delays are in milliseconds.
+ * </p>
+ *
+ * @see Backoff
+ */
+public final class RetryBackoff {
+
+    private static final Backoff DEFAULT_BACKOFF = Backoff.valueOf(System.getProperty("retryBackoff", "none").toUpperCase(Locale.ROOT));
+    private static final long DEFAULT_DELAY = Long.parseLong(System.getProperty("retryBackoffDelay", "1000"));
+    private static final long DEFAULT_MAX_DELAY = Long.parseLong(System.getProperty("retryBackoffMaxDelay", "30000"));
+
+    private final Backoff backoff;
+    private final long delay;
+    private final long maxDelay;
+
+    private RetryBackoff(Backoff backoff, long delay, long maxDelay) {
+        this.backoff = backoff;
+        this.delay = delay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Creates a new {@link RetryBackoff}, falling back to system properties for unset values.
+     *
+     * @param backoff  backoff strategy, {@link Backoff#DEFAULT} if not set
+     * @param delay    base delay, negative if not set
+     * @param maxDelay maximum delay, negative if not set
+     * @return new {@link RetryBackoff}
+     */
+    public static RetryBackoff of(Backoff backoff, long delay, long maxDelay) {
+        return new RetryBackoff(backoff == Backoff.DEFAULT ? DEFAULT_BACKOFF : backoff,
+            delay < 0 ? DEFAULT_DELAY : delay,
+            maxDelay < 0 ? DEFAULT_MAX_DELAY : maxDelay);
+    }
+
+    /**
+     * Returns the delay to wait before the given retry.
+     *
+     * @param retry         retry number (1-based)
+     * @param previousDelay delay waited before the previous retry, {@code 0} if none
+     * @return delay in milliseconds, {@code 0} to retry right away
+     */
+    public long nextDelay(int retry, long previousDelay) {
+        switch (backoff) {
+            case FIXED:
+                return Math.min(delay, maxDelay);
+            case EXPONENTIAL: {
+                int shift = Math.min(retry - 1, 30);
+                return delay > (maxDelay >> shift) ? maxDelay : delay << shift;
+            }
+            case DECORRELATED_JITTER: {
+                long upperBound = Math.max(delay, previousDelay) * 3;
+                return Math.min(ThreadLocalRandom.current().nextLong(delay, upperBound + 1), maxDelay);
+            }
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run-wide limit on the number of retries, shared by all retried tests.
+ * <p>
+ *     Set by {@code retryBudget} system property, either as a total number of retries (e.g. {@code 200})
+ *     or as a percentage of the tests started so far (e.g. {@code 10%}); unlimited if not set.
+ *     Once a total budget is exhausted, the breaker stays open for the rest of the run and failed tests aren't retried anymore,
+ *     so a broken shared dependency doesn't multiply the duration of the run. A percentage budget is checked against the
+ *     number of tests started when a retry is requested, so retries resume once enough further tests started.
+ * </p>
+ * Counters are lock-free, tests never wait on each other to take a retry.
+ */
+public final class RetryBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryBudget.class);
+
+    private final String budget;
+    private final boolean percentage;
+    private final double limit;
+
+    private final AtomicInteger startedTests = new AtomicInteger(0);
+    private final AtomicInteger retries = new AtomicInteger(0);
+    private final AtomicBoolean exhausted = new AtomicBoolean(false);
+    private final AtomicBoolean logged = new AtomicBoolean(false);
+
+    RetryBudget(String budget) {
+        this.budget = budget.trim();
+        this.percentage = this.budget.endsWith("%");
+        this.limit = this.budget.isEmpty()
+            ? -1
+            : Double.parseDouble(percentage ? this.budget.substring(0, this.budget.length() - 1) : this.budget);
+    }
+
+    /**
+     * Counts a test started for the first time.
+     */
+    public static void testStarted() {
+        Holder.INSTANCE.started();
+    }
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return false if the budget is exhausted and the test shouldn't be retried
+     */
+    public static boolean tryAcquire() {
+        return Holder.INSTANCE.acquire();
+    }
+
+    /**
+     * Checks if the budget is exhausted.
+     *
+     * @return true if failed tests aren't retried anymore, or until more tests started for a percentage budget
+     */
+    public static boolean isExhausted() {
+        return Holder.INSTANCE.exhausted.get();
+    }
+
+    /**
+     * Returns a message describing the exhausted budget.
+     *
+     * @return message to report on failed tests that weren't retried
+     */
+    public static String getExhaustedMessage() {
+        return Holder.INSTANCE.exhaustedMessage();
+    }
+
+    void started() {
+        if (percentage) {
+            startedTests.incrementAndGet();
+        }
+    }
+
+    boolean acquire() {
+        if (limit < 0) {
+            return true;
+        }
+        // A total budget never grows back, a percentage budget is recomputed from the tests started so far
+        while (percentage || !exhausted.get()) {
+            int used = retries.get();
+            if (used >= getLimit()) {
+                exhausted.set(true);
+                if (logged.compareAndSet(false, true)) {
+                    logger.warn("{}, failed tests won't be retried {}.", exhaustedMessage(),
+                        percentage ? "until more tests started" : "for the rest of the run");
+                }
+                return false;
+            }
+            if (retries.compareAndSet(used, used + 1)) {
+                exhausted.set(false);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String exhaustedMessage() {
+        return percentage
+            ? String.format("Retry budget exhausted: %d retries used, limit is %s of %d started tests", retries.get(), budget, startedTests.get())
+            : String.format("Retry budget exhausted: %d retries used, limit is %s", retries.get(), budget);
+    }
+
+    private int getLimit() {
+        return percentage ? (int) Math.ceil(limit * startedTests.get() / 100) : (int) limit;
+    }
+
+    private static final class Holder {
+
+        private static final RetryBudget INSTANCE = new RetryBudget(System.getProperty("retryBudget", ""));
+    }
+}
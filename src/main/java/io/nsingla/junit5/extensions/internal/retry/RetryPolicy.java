@@ -0,0 +1,127 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.platform.commons.util.AnnotationUtils.findAnnotation;
+
+import io.nsingla.junit5.annotations.RetryFailedParameterizedTest;
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import io.nsingla.junit5.extensions.RetryAnyFailure;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Retry settings of a test method, resolved once from its {@link RetryFailedTest} or {@link RetryFailedParameterizedTest}
+ * annotation and shared by all its invocations.
+ * <p>
+ *     A failure is retried unless the exception or one of its causes matches {@code abortOn},
+ *     only if the exception or one of its causes matches {@code retryOn} when set, and only if the {@code policy} accepts it.
+ * </p>
+ */
+public final class RetryPolicy {
+
+    private static final Map<Method, RetryPolicy> policies = new ConcurrentHashMap<>();
+
+    private final int maxRetries;
+    private final ExceptionMatcher retryOn;
+    private final ExceptionMatcher abortOn;
+    private final Predicate<Throwable> policy;
+    private final RetryBackoff backoff;
+    private final boolean inPlace;
+
+    private RetryPolicy(int maxRetries, ExceptionMatcher retryOn, ExceptionMatcher abortOn, Predicate<Throwable> policy, RetryBackoff backoff,
+                        boolean inPlace) {
+        this.maxRetries = maxRetries;
+        this.retryOn = retryOn;
+        this.abortOn = abortOn;
+        this.policy = policy;
+        this.backoff = backoff;
+        this.inPlace = inPlace;
+    }
+
+    /**
+     * Returns the retry policy of a test method.
+     *
+     * @param method test method annotated with {@link RetryFailedTest} or {@link RetryFailedParameterizedTest}
+     * @return cached {@link RetryPolicy} of the method
+     */
+    public static RetryPolicy of(Method method) {
+        return policies.computeIfAbsent(method, RetryPolicy::resolve);
+    }
+
+    private static RetryPolicy resolve(Method method) {
+        Optional<RetryFailedTest> retryFailedTest = findAnnotation(method, RetryFailedTest.class);
+        if (retryFailedTest.isPresent()) {
+            RetryFailedTest annotation = retryFailedTest.get();
+            return new RetryPolicy(annotation.maxRetries(), ExceptionMatcher.of(annotation.retryOn()), ExceptionMatcher.of(annotation.abortOn()),
+                instantiatePolicy(annotation.policy()), RetryBackoff.of(annotation.backoff(), annotation.backoffDelay(), annotation.maxBackoffDelay()),
+                !annotation.freshFixture());
+        }
+        RetryFailedParameterizedTest annotation = findAnnotation(method, RetryFailedParameterizedTest.class)
+            .orElseThrow(() -> new JUnitException("Configuration error: retry annotation not found on method " + method));
+        return new RetryPolicy(annotation.maxRetries(), ExceptionMatcher.of(annotation.retryOn()), ExceptionMatcher.of(annotation.abortOn()),
+            instantiatePolicy(annotation.policy()), RetryBackoff.of(annotation.backoff(), annotation.backoffDelay(), annotation.maxBackoffDelay()),
+            !annotation.freshFixture());
+    }
+
+    private static Predicate<Throwable> instantiatePolicy(Class<? extends Predicate<Throwable>> clazz) {
+        if (clazz == RetryAnyFailure.class) {
+            return null;
+        }
+        try {
+            return ReflectionUtils.newInstance(clazz);
+        } catch (Exception e) {
+            throw new JUnitException(String.format("Failed to instantiate retry policy [%s]. "
+                + "Please ensure that a no-argument constructor exists and "
+                + "that the class is either a top-level class or a static nested class", clazz.getName()), e);
+        }
+    }
+
+    /**
+     * Returns the maximum number of retries.
+     *
+     * @param defaultMaxRetries maximum number of retries if not set on the annotation
+     * @return maximum number of retries
+     */
+    public int getMaxRetries(int defaultMaxRetries) {
+        return maxRetries < 0 ? defaultMaxRetries : maxRetries;
+    }
+
+    /**
+     * Checks if the failure should be retried.
+     *
+     * @param throwable failure of the test
+     * @return true if the failure is accepted by {@code abortOn}, {@code retryOn} and {@code policy}
+     */
+    public boolean shouldRetry(Throwable throwable) {
+        if (abortOn.matchesCauseChain(throwable)) {
+            return false;
+        }
+        if (!retryOn.isEmpty() && !retryOn.matchesCauseChain(throwable)) {
+            return false;
+        }
+        return policy == null || policy.test(throwable);
+    }
+
+    /**
+     * Returns the backoff applied between retries.
+     *
+     * @return {@link RetryBackoff} of the test
+     */
+    public RetryBackoff getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * Checks if failures are retried in place, by invoking the test method again within the failed invocation.
+     *
+     * @return true if retries don't need a fresh fixture
+     */
+    public boolean isInPlace() {
+        return inPlace;
+    }
+}
@@ -0,0 +1,77 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules delayed retries instead of sleeping in the failed invocation.
+ * A single daemon thread is shared by the whole JVM and only hands the retry over once the delay expired. The thread consuming
+ * the test template still waits for the retry, see {@link io.nsingla.junit5.extensions.internal.iterators.TestTemplateIterator}.
+ * <p>
+ *     Every waiting template may cost the ForkJoin pool a compensating worker, so at most {@code retryBackoffMaxWaiting}
+ *     (defaults to {@code 16}) templates wait for delayed retries at once; retries of further templates aren't delayed.
+ * </p>
+ */
+public final class RetryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+    private static final int WAITING_TEMPLATES_LIMIT = Integer.parseInt(System.getProperty("retryBackoffMaxWaiting", "16"));
+
+    private static final AtomicInteger waitingTemplates = new AtomicInteger(0);
+    private static final AtomicBoolean limitLogged = new AtomicBoolean(false);
+
+    private RetryScheduler() {
+    }
+
+    /**
+     * Runs the given action after the delay.
+     *
+     * @param action      action to run, must be short and non-blocking
+     * @param delayMillis delay in milliseconds
+     */
+    public static void schedule(Runnable action, long delayMillis) {
+        Holder.SCHEDULER.schedule(action, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reserves a slot for a template about to wait for delayed retries.
+     *
+     * @return false if {@code retryBackoffMaxWaiting} templates are already waiting and the retry shouldn't be delayed
+     */
+    public static boolean tryReserveWaitingTemplate() {
+        while (true) {
+            int waiting = waitingTemplates.get();
+            if (waiting >= WAITING_TEMPLATES_LIMIT) {
+                if (limitLogged.compareAndSet(false, true)) {
+                    logger.warn("{} test templates already wait for delayed retries, retrying further templates right away.", waiting);
+                }
+                return false;
+            }
+            if (waitingTemplates.compareAndSet(waiting, waiting + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a template whose delayed retries were all handed over.
+     */
+    public static void releaseWaitingTemplate() {
+        waitingTemplates.decrementAndGet();
+    }
+
+    private static final class Holder {
+
+        private static final ScheduledExecutorService SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "retry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
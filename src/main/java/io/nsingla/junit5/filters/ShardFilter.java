@@ -0,0 +1,179 @@
+package io.nsingla.junit5.filters;
+
+import io.nsingla.junit5.history.DurationHistory;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Splits the test classes across CI nodes, enabled with {@code -DshardTotal=} and {@code -DshardIndex=} (0-based).
+ * <p>
+ *     Every top-level test class is assigned to exactly one shard, the same way on every node and regardless of which
+ *     classes are discovered together, nested classes running with their top-level class. Top-level classes recorded in
+ *     {@link DurationHistory} are assigned longest-first to the shard with the lowest expected total duration; history of
+ *     nested and removed classes is ignored. Classes without history are assigned by a stable hash of their name, weighted
+ *     towards the shards with the lowest expected totals. All nodes must therefore use the same history file, which sharded
+ *     runs never update (see {@link #isSharded()}).
+ * </p>
+ * Registered as a {@link PostDiscoveryFilter} through {@code META-INF/services}.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardFilter.class);
+    private static final int SHARD_TOTAL = Integer.parseInt(System.getProperty("shardTotal", "1"));
+    private static final int SHARD_INDEX = Integer.parseInt(System.getProperty("shardIndex", "0"));
+
+    private final int shardTotal;
+    private final int shardIndex;
+    private final Supplier<Map<String, Long>> classDurations;
+
+    private Assignment assignment;
+
+    public ShardFilter() {
+        this(SHARD_TOTAL, SHARD_INDEX, () -> DurationHistory.getInstance().getClassDurations());
+    }
+
+    ShardFilter(int shardTotal, int shardIndex, Supplier<Map<String, Long>> classDurations) {
+        this.shardTotal = shardTotal;
+        this.shardIndex = shardIndex;
+        this.classDurations = classDurations;
+    }
+
+    /**
+     * Checks if the run is split across CI nodes. Sharded runs don't save the {@link DurationHistory}: every node only
+     * measures its own classes, nodes saving their history would assign the classes differently in the next run.
+     *
+     * @return true if {@code shardTotal} is greater than 1
+     */
+    public static boolean isSharded() {
+        return SHARD_TOTAL > 1;
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (shardTotal <= 1 || descriptor.isRoot()) {
+            return FilterResult.included(null);
+        }
+        if (shardIndex < 0 || shardIndex >= shardTotal) {
+            throw new IllegalArgumentException("shardIndex must be between 0 and " + (shardTotal - 1) + ", was " + shardIndex);
+        }
+        int shard = getAssignment().getShard(getKey(getTopLevelDescriptor(descriptor)));
+        if (shard == shardIndex) {
+            return FilterResult.included(null);
+        }
+        return FilterResult.excluded("Assigned to shard " + shard + " of " + shardTotal);
+    }
+
+    private synchronized Assignment getAssignment() {
+        if (assignment == null) {
+            assignment = assign(classDurations.get(), shardTotal);
+            logger.info("Shard {}/{}: expected shard durations {} ms, {} class(es) with history.",
+                shardIndex, shardTotal, Arrays.toString(assignment.totals), assignment.shards.size());
+        }
+        return assignment;
+    }
+
+    private static TestDescriptor getTopLevelDescriptor(TestDescriptor descriptor) {
+        TestDescriptor current = descriptor;
+        while (current.getParent().isPresent() && !current.getParent().get().isRoot()) {
+            current = current.getParent().get();
+        }
+        return current;
+    }
+
+    private static String getKey(TestDescriptor descriptor) {
+        return descriptor.getSource()
+            .filter(ClassSource.class::isInstance)
+            .map(source -> ((ClassSource) source).getClassName())
+            .orElseGet(() -> descriptor.getUniqueId().toString());
+    }
+
+    /**
+     * Assigns the top-level classes with history longest-first to the shard with the lowest expected total duration,
+     * ties broken by class name.
+     *
+     * @param durations  recorded durations of classes in milliseconds
+     * @param shardTotal number of shards
+     * @return assignment of every class
+     */
+    static Assignment assign(Map<String, Long> durations, int shardTotal) {
+        Map<String, Integer> shards = new HashMap<>();
+        long[] totals = new long[shardTotal];
+        durations.entrySet().stream()
+            .filter(entry -> isTopLevelClass(entry.getKey()))
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> {
+                int shard = 0;
+                for (int i = 1; i < totals.length; i++) {
+                    if (totals[i] < totals[shard]) {
+                        shard = i;
+                    }
+                }
+                totals[shard] += entry.getValue();
+                shards.put(entry.getKey(), shard);
+            });
+        return new Assignment(shards, totals);
+    }
+
+    /**
+     * Checks that a class still exists and isn't a nested class, whose duration is already part of its top-level class.
+     * Static member classes are top-level test classes.
+     */
+    private static boolean isTopLevelClass(String className) {
+        return ReflectionSupport.tryToLoadClass(className).toOptional().filter(testClass -> !ReflectionUtils.isInnerClass(testClass)).isPresent();
+    }
+
+    /**
+     * Shards of the classes recorded in {@link DurationHistory}.
+     */
+    static final class Assignment {
+
+        private final Map<String, Integer> shards;
+        private final long[] totals;
+        private final long[] weights;
+        private final long weightsSum;
+
+        private Assignment(Map<String, Integer> shards, long[] totals) {
+            this.shards = shards;
+            this.totals = totals;
+            // Every shard gets a share of the classes without history making up for its expected total,
+            // plus the average duration of a class so they're still spread if the totals are equal
+            long max = Arrays.stream(totals).max().orElse(0);
+            long average = shards.isEmpty() ? 1 : Math.max(1, Arrays.stream(totals).sum() / shards.size());
+            this.weights = Arrays.stream(totals).map(total -> max - total + average).toArray();
+            this.weightsSum = Arrays.stream(weights).sum();
+        }
+
+        /**
+         * Returns the shard of a top-level class.
+         *
+         * @param key class name, or unique id of a top-level descriptor without class
+         * @return shard index
+         */
+        int getShard(String key) {
+            Integer shard = shards.get(key);
+            if (shard != null) {
+                return shard;
+            }
+            long hash = Math.floorMod(key.hashCode() * 0x9E3779B97F4A7C15L, weightsSum);
+            for (int i = 0; i < weights.length; i++) {
+                hash -= weights[i];
+                if (hash < 0) {
+                    return i;
+                }
+            }
+            return weights.length - 1;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.nsingla.junit5.fixtures;
+
+import io.nsingla.junit5.annotations.Fixture;
+import io.nsingla.junit5.extensions.TestRetriedException;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.opentest4j.TestAbortedException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Extension resolving {@link Fixture} parameters with instances leased from their {@link FixturePool}.
+ * Registered by the {@link Fixture} annotation itself.
+ * <p>
+ *     All {@link Fixture} parameters of the same factory resolved for a test (e.g. by its {@code @BeforeEach} methods and
+ *     the test method) get the same instance. Leases are kept in the store of the test, keyed by its unique id, and released
+ *     once its {@code @AfterEach} methods finished, discarding the instances if the test failed or is retried.
+ * </p>
+ * <p>
+ *     Parameters of constructors and {@code @BeforeAll}/{@code @AfterAll} methods are rejected: they're resolved with the
+ *     context of the test class, so tests running concurrently would share an instance that is never discarded.
+ * </p>
+ */
+public class FixtureExtension implements ParameterResolver, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(FixtureExtension.class);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.isAnnotated(Fixture.class);
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        @SuppressWarnings("rawtypes")
+        Class<? extends FixtureFactory> factoryClass = parameterContext.findAnnotation(Fixture.class).map(Fixture::value).orElseThrow();
+        if (extensionContext.getTestMethod().isEmpty()) {
+            throw new ParameterResolutionException(String.format("@Fixture can't be used on parameter [%s] of [%s]: "
+                    + "only test methods and @BeforeEach/@AfterEach methods get their own instance",
+                parameterContext.getParameter(), parameterContext.getDeclaringExecutable()));
+        }
+        Leases leases = extensionContext.getStore(NAMESPACE).getOrComputeIfAbsent(extensionContext.getUniqueId(), key -> new Leases(), Leases.class);
+        FixturePool.Lease<?> lease;
+        try {
+            lease = leases.get(factoryClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParameterResolutionException("Interrupted while waiting for an instance of " + factoryClass.getName(), e);
+        } catch (RuntimeException e) {
+            throw new ParameterResolutionException("Unable to lease an instance of " + factoryClass.getName() + ": " + e.getMessage(), e);
+        }
+        Class<?> parameterType = parameterContext.getParameter().getType();
+        if (!parameterType.isInstance(lease.get())) {
+            throw new ParameterResolutionException(String.format("%s creates instances of [%s], not assignable to parameter [%s] of [%s]",
+                factoryClass.getName(), lease.get().getClass().getName(), parameterContext.getParameter(), parameterContext.getDeclaringExecutable()));
+        }
+        return lease.get();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Leases leases = context.getStore(NAMESPACE).remove(context.getUniqueId(), Leases.class);
+        if (leases != null) {
+            leases.release(isFailed(context.getExecutionException()));
+        }
+    }
+
+    /**
+     * Checks if the instances used by a test can't be trusted anymore, i.e. the test failed or is retried.
+     * Tests aborted by a failed assumption didn't fail.
+     *
+     * @param exception execution exception of the test
+     * @return true if the instances should be discarded
+     */
+    private static boolean isFailed(Optional<Throwable> exception) {
+        return exception.isPresent() && (!(exception.get() instanceof TestAbortedException) || exception.get() instanceof TestRetriedException);
+    }
+
+    private static final class Leases implements ExtensionContext.Store.CloseableResource {
+
+        private final Map<Class<?>, FixturePool.Lease<?>> leases = new LinkedHashMap<>();
+
+        @SuppressWarnings("rawtypes")
+        synchronized FixturePool.Lease<?> get(Class<? extends FixtureFactory> factoryClass) throws InterruptedException {
+            FixturePool.Lease<?> lease = leases.get(factoryClass);
+            if (lease == null) {
+                lease = FixturePool.of(factoryClass).lease();
+                leases.put(factoryClass, lease);
+            }
+            return lease;
+        }
+
+        synchronized void release(boolean discard) {
+            leases.values().forEach(lease -> lease.release(discard));
+            leases.clear();
+        }
+
+        @Override
+        public void close() {
+            release(false);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.nsingla.junit5.fixtures;
+
+/**
+ * Creates, checks and destroys the instances of a {@link FixturePool}, e.g. browser sessions or HTTP client pools.
+ * Methods are called concurrently by test threads and must be thread safe.
+ * <p>
+ *     Pool settings default to an empty pool of at most {@code fixturePoolMaxSize} (defaults to {@code 16}) instances,
+ *     used any number of times; override the matching methods to change them.
+ * </p>
+ *
+ * @param <T> type of the pooled instances
+ */
+public interface FixtureFactory<T> {
+
+    /**
+     * Creates a new instance.
+     *
+     * @return new instance, never null
+     * @throws Exception if the instance can't be created
+     */
+    T create() throws Exception;
+
+    /**
+     * Prepares a newly created instance before its first use, e.g. opens a first page or connection.
+     *
+     * @param instance newly created instance
+     * @throws Exception if the instance can't be prepared, it's then destroyed
+     */
+    default void warmUp(T instance) throws Exception {
+    }
+
+    /**
+     * Checks an idle instance before it's leased. Unhealthy instances are destroyed and replaced.
+     *
+     * @param instance idle instance
+     * @return true if the instance can be used
+     */
+    default boolean isHealthy(T instance) {
+        return true;
+    }
+
+    /**
+     * Destroys an instance. Closes it by default, if it's {@link AutoCloseable}.
+     *
+     * @param instance instance to destroy
+     * @throws Exception if the instance can't be destroyed, it's only logged
+     */
+    default void destroy(T instance) throws Exception {
+        if (instance instanceof AutoCloseable) {
+            ((AutoCloseable) instance).close();
+        }
+    }
+
+    /**
+     * Returns the number of instances created and warmed up when the pool is first used.
+     *
+     * @return minimum number of instances
+     */
+    default int minSize() {
+        return 0;
+    }
+
+    /**
+     * Returns the maximum number of instances, tests waiting for an instance once they're all leased.
+     *
+     * @return maximum number of instances
+     */
+    default int maxSize() {
+        return FixturePool.DEFAULT_MAX_SIZE;
+    }
+
+    /**
+     * Returns the number of leases after which an instance is destroyed and replaced by a new one.
+     *
+     * @return maximum number of uses of an instance, {@code 0} for no limit
+     */
+    default int maxUses() {
+        return 0;
+    }
+}
@@ -0,0 +1,417 @@
+package io.nsingla.junit5.fixtures;
+
+import io.nsingla.junit5.metrics.LatencyHistogram;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.util.ExceptionUtils;
+import org.junit.platform.commons.util.Preconditions;
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of instances created by a {@link FixtureFactory}, shared by all tests of the run.
+ * <p>
+ *     At most {@link FixtureFactory#maxSize()} instances are leased at once, further tests wait up to
+ *     {@code fixtureLeaseTimeout} seconds (defaults to {@code 300}) for one to be released. Idle instances are reused
+ *     last-released-first and checked with {@link FixtureFactory#isHealthy(Object)} before every lease. Released instances
+ *     are destroyed instead of being reused if the test failed, or once used {@link FixtureFactory#maxUses()} times.
+ * </p>
+ * Pools are created on first use, one per factory class, and closed at the end of the run by {@link FixturePoolsListener}.
+ *
+ * @param <T> type of the pooled instances
+ */
+public final class FixturePool<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixturePool.class);
+
+    static final int DEFAULT_MAX_SIZE = Integer.parseInt(System.getProperty("fixturePoolMaxSize", "16"));
+
+    private static final long LEASE_TIMEOUT_SECONDS = Long.parseLong(System.getProperty("fixtureLeaseTimeout", "300"));
+
+    private static final Map<Class<?>, FixturePool<?>> POOLS = new ConcurrentHashMap<>();
+
+    private final FixtureFactory<T> factory;
+    private final long leaseTimeoutSeconds;
+    private final int maxSize;
+    private final int maxUses;
+    private final Semaphore permits;
+    private final Deque<Pooled<T>> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger peakLeased = new AtomicInteger();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LongAdder leasedNanos = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder unhealthy = new LongAdder();
+    private final long createdAt = System.nanoTime();
+
+    private volatile boolean warm = false;
+
+    private FixturePool(FixtureFactory<T> factory) {
+        this(factory, LEASE_TIMEOUT_SECONDS);
+    }
+
+    FixturePool(FixtureFactory<T> factory, long leaseTimeoutSeconds) {
+        this.factory = factory;
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+        this.maxSize = factory.maxSize();
+        this.maxUses = factory.maxUses();
+        Preconditions.condition(maxSize > 0, () -> "Configuration error: maxSize of " + getName() + " must be positive");
+        Preconditions.condition(factory.minSize() <= maxSize, () -> "Configuration error: minSize of " + getName() + " is greater than its maxSize");
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Registers a factory instance, e.g. a factory configured by the test suite, to be used for its class.
+     * Must be called before the pool of the factory class is first used.
+     *
+     * @param factory {@link FixtureFactory} to register
+     * @param <T>     type of the pooled instances
+     * @return pool of the factory
+     */
+    public static <T> FixturePool<T> register(FixtureFactory<T> factory) {
+        FixturePool<T> pool = new FixturePool<>(factory);
+        FixturePool<?> existing = POOLS.putIfAbsent(factory.getClass(), pool);
+        Preconditions.condition(existing == null, () -> "A fixture pool is already registered for " + factory.getClass().getName());
+        return pool;
+    }
+
+    /**
+     * Returns the pool of a factory class, instantiating the factory with its no-argument constructor if not registered.
+     *
+     * @param factoryClass {@link FixtureFactory} class
+     * @return pool of the factory
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static FixturePool<?> of(Class<? extends FixtureFactory> factoryClass) {
+        return POOLS.computeIfAbsent(factoryClass, clazz -> new FixturePool<>((FixtureFactory<?>) ReflectionUtils.newInstance(clazz)));
+    }
+
+    /**
+     * Returns all pools used or registered during the run.
+     *
+     * @return pools of the run
+     */
+    public static Collection<FixturePool<?>> getAll() {
+        return Collections.unmodifiableCollection(POOLS.values());
+    }
+
+    /**
+     * Destroys the idle instances of all pools. Their statistics are kept.
+     */
+    static void closeAll() {
+        POOLS.values().forEach(FixturePool::close);
+    }
+
+    /**
+     * Leases an instance, waiting for one to be released if {@link FixtureFactory#maxSize()} instances are leased.
+     * Waiting is done in {@link ForkJoinPool#managedBlock}, so the parallel executor can compensate for the blocked worker.
+     *
+     * @return {@link Lease} to release once the test finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Lease<T> lease() throws InterruptedException {
+        warmUpIfNeeded();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = acquirePermit();
+        } finally {
+            waitTime.record(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            throw new JUnitException(String.format("Timed out after %ds waiting for an instance of %s, %d out of %d leased",
+                leaseTimeoutSeconds, getName(), leased.get(), maxSize));
+        }
+        Pooled<T> pooled;
+        try {
+            pooled = takeIdle();
+            if (pooled == null) {
+                pooled = newPooled();
+            }
+        } catch (Throwable t) {
+            permits.release();
+            throw t;
+        }
+        pooled.uses++;
+        peakLeased.accumulateAndGet(leased.incrementAndGet(), Math::max);
+        return new Lease<>(this, pooled);
+    }
+
+    /**
+     * Returns the name of the pool, i.e. the name of its factory class.
+     *
+     * @return name of the pool
+     */
+    public String getName() {
+        return factory.getClass().getName();
+    }
+
+    /**
+     * Returns the time tests waited for an instance to be available.
+     *
+     * @return {@link LatencyHistogram} of waits, in nanoseconds
+     */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * Returns the ratio of the time instances were leased to the time {@link FixtureFactory#maxSize()} instances
+     * were available since the pool was created.
+     *
+     * @return utilization of the pool, between {@code 0} and {@code 1}
+     */
+    public double getUtilization() {
+        long elapsed = System.nanoTime() - createdAt;
+        return elapsed > 0 ? Math.min(1, (double) leasedNanos.sum() / elapsed / maxSize) : 0;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getLeased() {
+        return leased.get();
+    }
+
+    public int getPeakLeased() {
+        return peakLeased.get();
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    /**
+     * Returns the number of instances destroyed because their test failed.
+     *
+     * @return number of discarded instances
+     */
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    /**
+     * Returns the number of instances destroyed after {@link FixtureFactory#maxUses()} leases.
+     *
+     * @return number of recycled instances
+     */
+    public long getRecycled() {
+        return recycled.sum();
+    }
+
+    /**
+     * Returns the number of idle instances destroyed because {@link FixtureFactory#isHealthy(Object)} failed.
+     *
+     * @return number of unhealthy instances
+     */
+    public long getUnhealthy() {
+        return unhealthy.sum();
+    }
+
+    private void warmUpIfNeeded() {
+        if (warm) {
+            return;
+        }
+        synchronized (this) {
+            if (warm) {
+                return;
+            }
+            List<Pooled<T>> instances = new ArrayList<>();
+            try {
+                for (int i = idle.size(); i < factory.minSize(); i++) {
+                    instances.add(newPooled());
+                }
+            } catch (RuntimeException e) {
+                // The pool isn't warm, the next lease tries again from scratch
+                instances.forEach(pooled -> destroy(pooled.instance));
+                throw e;
+            }
+            instances.forEach(idle::addLast);
+            warm = true;
+            if (!instances.isEmpty()) {
+                logger.info("Warmed up {} instance(s) of {}", instances.size(), getName());
+            }
+        }
+    }
+
+    private boolean acquirePermit() throws InterruptedException {
+        // Unlike tryAcquire(), a timed tryAcquire doesn't barge ahead of waiting tests
+        if (permits.tryAcquire(0, TimeUnit.SECONDS)) {
+            return true;
+        }
+        PermitBlocker blocker = new PermitBlocker(System.nanoTime() + TimeUnit.SECONDS.toNanos(leaseTimeoutSeconds));
+        ForkJoinPool.managedBlock(blocker);
+        return blocker.acquired;
+    }
+
+    private Pooled<T> takeIdle() {
+        Pooled<T> pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isHealthy(pooled.instance)) {
+                return pooled;
+            }
+            unhealthy.increment();
+            destroy(pooled.instance);
+        }
+        return null;
+    }
+
+    private boolean isHealthy(T instance) {
+        try {
+            return factory.isHealthy(instance);
+        } catch (RuntimeException e) {
+            logger.warn("Health check of {} failed: {}", getName(), e.toString());
+            return false;
+        }
+    }
+
+    private Pooled<T> newPooled() {
+        T instance;
+        try {
+            instance = Preconditions.notNull(factory.create(), () -> getName() + " created a null instance");
+        } catch (Exception e) {
+            throw ExceptionUtils.throwAsUncheckedException(e);
+        }
+        created.increment();
+        try {
+            factory.warmUp(instance);
+        } catch (Exception e) {
+            destroy(instance);
+            throw ExceptionUtils.throwAsUncheckedException(e);
+        }
+        return new Pooled<>(instance);
+    }
+
+    private void release(Pooled<T> pooled, long leasedAt, boolean discard) {
+        leasedNanos.add(System.nanoTime() - leasedAt);
+        leased.decrementAndGet();
+        try {
+            if (discard) {
+                discarded.increment();
+                destroy(pooled.instance);
+            } else if (maxUses > 0 && pooled.uses >= maxUses) {
+                recycled.increment();
+                destroy(pooled.instance);
+            } else {
+                idle.addFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(T instance) {
+        destroyed.increment();
+        try {
+            factory.destroy(instance);
+        } catch (Exception e) {
+            logger.warn("Unable to destroy an instance of {}: {}", getName(), e.toString());
+        }
+    }
+
+    private void close() {
+        Pooled<T> pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled.instance);
+        }
+        warm = false;
+    }
+
+    /**
+     * Waits for a permit until the lease timeout.
+     */
+    private final class PermitBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final long deadline;
+        private boolean done = false;
+        private boolean acquired = false;
+
+        private PermitBlocker(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!done) {
+                acquired = permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                done = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    private static final class Pooled<T> {
+
+        private final T instance;
+        private int uses = 0;
+
+        private Pooled(T instance) {
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * Instance leased from a {@link FixturePool}, to be released exactly once.
+     *
+     * @param <T> type of the pooled instance
+     */
+    public static final class Lease<T> {
+
+        private final FixturePool<T> pool;
+        private final Pooled<T> pooled;
+        private final long leasedAt = System.nanoTime();
+        private boolean released = false;
+
+        private Lease(FixturePool<T> pool, Pooled<T> pooled) {
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        public T get() {
+            return pooled.instance;
+        }
+
+        /**
+         * Returns the instance to its pool, or destroys it.
+         *
+         * @param discard true to destroy the instance, e.g. because the test using it failed
+         */
+        public synchronized void release(boolean discard) {
+            if (!released) {
+                released = true;
+                pool.release(pooled, leasedAt, discard);
+            }
+        }
+    }
+}
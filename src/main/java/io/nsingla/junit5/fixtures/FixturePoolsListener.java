@@ -0,0 +1,26 @@
+package io.nsingla.junit5.fixtures;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the usage of every {@link FixturePool} at the end of the run and destroys their idle instances.
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}.
+ */
+public class FixturePoolsListener implements TestExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixturePoolsListener.class);
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        for (FixturePool<?> pool : FixturePool.getAll()) {
+            logger.info("Fixture pool {}: {} instance(s) created, {} discarded, {} recycled, {} unhealthy, peak {}/{} leased, "
+                    + "utilization {}%, wait p95 {}ms, max {}ms", pool.getName(), pool.getCreated(), pool.getDiscarded(), pool.getRecycled(),
+                pool.getUnhealthy(), pool.getPeakLeased(), pool.getMaxSize(), Math.round(pool.getUtilization() * 100),
+                pool.getWaitTime().getValueAtQuantile(0.95) / 1_000_000, pool.getWaitTime().getMax() / 1_000_000);
+        }
+        FixturePool.closeAll();
+    }
+}
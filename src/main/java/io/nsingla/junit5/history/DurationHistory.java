@@ -0,0 +1,199 @@
+package io.nsingla.junit5.history;
+
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durations of test classes and methods recorded in previous runs.
+ * <p>
+ *     Durations are kept in milliseconds in a properties file set by {@code durationHistoryFile} system property,
+ *     defaults to {@code .junit5-framework/test-durations.properties} in the working directory.
+ *     Classes are keyed by their fully qualified name, methods by {@code className#methodName(parameterTypes)} so
+ *     overloaded methods don't share a duration.
+ *     A new duration is averaged with the recorded one, so a single slow run doesn't reorder the whole suite.
+ *     Several JVMs (e.g. Surefire forks) may share the file: saves are serialized by a lock on a {@code .lock} file next
+ *     to it, and the durations recorded by the run are merged into the file as read under the lock.
+ * </p>
+ */
+public final class DurationHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurationHistory.class);
+    private static final Path HISTORY_FILE = Paths.get(System.getProperty("durationHistoryFile", ".junit5-framework/test-durations.properties"));
+
+    private final Path file;
+    private final Path lockFile;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private final Map<String, Long> recorded = new ConcurrentHashMap<>();
+
+    DurationHistory(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try {
+            read(durations);
+        } catch (IOException e) {
+            logger.warn("Unable to read test duration history from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the history loaded from {@code durationHistoryFile}.
+     *
+     * @return shared {@link DurationHistory}
+     */
+    public static DurationHistory getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Builds the key of a test method, e.g. {@code com.example.CheckoutTest#pay(java.lang.String, int)}.
+     *
+     * @param source {@link MethodSource} of the test method
+     * @return history key
+     */
+    public static String methodKey(MethodSource source) {
+        return source.getClassName() + "#" + source.getMethodName() + "(" + source.getMethodParameterTypes() + ")";
+    }
+
+    /**
+     * Returns the recorded duration.
+     *
+     * @param key class name or {@link #methodKey(MethodSource) method key}
+     * @return duration in milliseconds, empty if never recorded
+     */
+    public Optional<Long> getDuration(String key) {
+        return Optional.ofNullable(durations.get(key));
+    }
+
+    /**
+     * Returns the recorded durations of test classes.
+     *
+     * @return class names mapped to durations in milliseconds
+     */
+    public Map<String, Long> getClassDurations() {
+        Map<String, Long> classDurations = new TreeMap<>();
+        durations.forEach((key, duration) -> {
+            if (!key.contains("#")) {
+                classDurations.put(key, duration);
+            }
+        });
+        return classDurations;
+    }
+
+    /**
+     * Checks if any duration is recorded.
+     *
+     * @return true if history is empty
+     */
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Records a new duration, averaged with the previous one if any.
+     *
+     * @param key      class name or {@link #methodKey(MethodSource) method key}
+     * @param duration duration in milliseconds
+     */
+    public void record(String key, long duration) {
+        durations.merge(key, duration, DurationHistory::average);
+        recorded.merge(key, duration, DurationHistory::average);
+    }
+
+    private static long average(long previous, long current) {
+        return (previous + current) / 2;
+    }
+
+    /**
+     * Reads the durations of the file.
+     *
+     * @param into map receiving the duration of every key
+     */
+    private void read(Map<String, Long> into) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        properties.forEach((key, value) -> {
+            // Method keys recorded without their parameter types are never looked up anymore
+            if (isLegacyMethodKey((String) key)) {
+                return;
+            }
+            try {
+                into.put((String) key, Long.parseLong((String) value));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid test duration of {} in {}: {}", key, file, value);
+            }
+        });
+    }
+
+    private static boolean isLegacyMethodKey(String key) {
+        return key.contains("#") && !key.endsWith(")");
+    }
+
+    /**
+     * Merges the durations recorded since the last save into the file, replacing it atomically.
+     */
+    public synchronized void save() {
+        Map<String, Long> runDurations = new HashMap<>();
+        for (String key : recorded.keySet()) {
+            Long duration = recorded.remove(key);
+            if (duration != null) {
+                runDurations.put(key, duration);
+            }
+        }
+        if (runDurations.isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            try (FileChannel lock = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                lock.lock(); // Released when the channel is closed
+                // Other JVMs may have saved their durations since the file was loaded
+                Map<String, Long> current = new TreeMap<>();
+                read(current);
+                runDurations.forEach((key, duration) -> current.merge(key, duration, DurationHistory::average));
+                Path temp = Files.createTempFile(parent, "test-durations", ".tmp");
+                try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, Long> entry : current.entrySet()) {
+                        writer.write(escape(entry.getKey()) + "=" + entry.getValue() + System.lineSeparator());
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                durations.putAll(current);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write test duration history to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String escape(String key) {
+        return key.replace("\\", "\\\\").replace("=", "\\=").replace(":", "\\:").replace(" ", "\\ ");
+    }
+
+    private static final class Holder {
+
+        private static final DurationHistory INSTANCE = new DurationHistory(HISTORY_FILE);
+    }
+}
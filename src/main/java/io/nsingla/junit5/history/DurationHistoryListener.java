@@ -0,0 +1,77 @@
+package io.nsingla.junit5.history;
+
+import io.nsingla.junit5.filters.ShardFilter;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records durations of test classes and methods into {@link DurationHistory} and saves it at the end of the run.
+ * Invocations of test templates are accounted to their test method. Sharded runs don't save the history, so every node
+ * keeps assigning the classes the same way.
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}.
+ */
+public class DurationHistoryListener implements TestExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurationHistoryListener.class);
+
+    private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+
+    private volatile TestPlan testPlan;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        this.testPlan = testPlan;
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (testIdentifier.getSource().isPresent()) {
+            startTimes.put(testIdentifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        Long startTime = startTimes.remove(testIdentifier.getUniqueId());
+        if (startTime == null) {
+            return;
+        }
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        TestSource source = testIdentifier.getSource().get();
+        if (source instanceof ClassSource) {
+            DurationHistory.getInstance().record(((ClassSource) source).getClassName(), duration);
+        } else if (source instanceof MethodSource && !isTemplateInvocation(testIdentifier)) {
+            DurationHistory.getInstance().record(DurationHistory.methodKey((MethodSource) source), duration);
+        }
+    }
+
+    private boolean isTemplateInvocation(TestIdentifier testIdentifier) {
+        return Optional.ofNullable(testPlan)
+            .flatMap(plan -> plan.getParent(testIdentifier))
+            .flatMap(TestIdentifier::getSource)
+            .filter(MethodSource.class::isInstance)
+            .isPresent();
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        startTimes.clear();
+        if (ShardFilter.isSharded()) {
+            logger.info("Sharded run, test duration history isn't saved.");
+        } else {
+            DurationHistory.getInstance().save();
+        }
+    }
+}
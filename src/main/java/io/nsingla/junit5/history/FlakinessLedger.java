@@ -0,0 +1,206 @@
+package io.nsingla.junit5.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Outcomes of retried tests recorded in previous runs.
+ * <p>
+ *     Outcomes are keyed by the unique id of the test and kept in the file set by {@code flakinessLedgerFile} system
+ *     property, defaults to {@code .junit5-framework/flakiness-ledger.tsv} in the working directory.
+ *     Every line holds a test unique id and a sequence of {@link Outcome} codes, oldest first. Outcomes of a run are
+ *     appended at its end; once the file holds more than twice as many lines as tests, it's compacted to one line per test,
+ *     keeping the last {@code flakinessHistorySize} (defaults to {@code 50}) outcomes of each.
+ *     Several JVMs (e.g. Surefire forks) may share the file: writes are serialized by a lock on a {@code .lock} file next to it,
+ *     and the file is read again under the lock before being compacted, so lines appended by other JVMs aren't lost.
+ * </p>
+ * Outcomes recorded during a run are only visible once the run is {@link #save() saved}.
+ */
+public final class FlakinessLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlakinessLedger.class);
+    private static final Path LEDGER_FILE = Paths.get(System.getProperty("flakinessLedgerFile", ".junit5-framework/flakiness-ledger.tsv"));
+    private static final int HISTORY_SIZE = Integer.parseInt(System.getProperty("flakinessHistorySize", "50"));
+
+    /**
+     * Outcome of a test, including all its retries.
+     */
+    public enum Outcome {
+        /** Passed on the first attempt. */
+        PASSED('P'),
+        /** Failed at first, then passed on a retry. */
+        PASSED_ON_RETRY('R'),
+        /** Failed on every attempt, at least one retry included. */
+        FAILED('F'),
+        /** Failed on the first attempt and wasn't retried. */
+        FAILED_NOT_RETRIED('U');
+
+        private final char code;
+
+        Outcome(char code) {
+            this.code = code;
+        }
+
+        public char getCode() {
+            return code;
+        }
+    }
+
+    private final Path file;
+    private final Path lockFile;
+    private final Map<String, String> outcomes = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Outcome>> recorded = new ConcurrentLinkedQueue<>();
+
+    FlakinessLedger(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try {
+            read(outcomes);
+        } catch (IOException e) {
+            logger.warn("Unable to read flakiness ledger from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the ledger loaded from {@code flakinessLedgerFile}.
+     *
+     * @return shared {@link FlakinessLedger}
+     */
+    public static FlakinessLedger getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the outcome codes recorded for a test in previous runs, oldest first.
+     *
+     * @param uniqueId unique id of the test
+     * @return {@link Outcome} codes, empty if never recorded
+     */
+    public String getOutcomes(String uniqueId) {
+        return outcomes.getOrDefault(uniqueId, "");
+    }
+
+    /**
+     * Returns the outcome codes of all tests recorded in previous runs.
+     *
+     * @return unique ids mapped to {@link Outcome} codes, oldest first
+     */
+    public Map<String, String> getAllOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    /**
+     * Records an outcome of the current run.
+     * This method is thread safe and can be used by multiple threads.
+     *
+     * @param uniqueId unique id of the test
+     * @param outcome  {@link Outcome} of the test
+     */
+    public void record(String uniqueId, Outcome outcome) {
+        recorded.add(Map.entry(uniqueId, outcome));
+    }
+
+    /**
+     * Reads the outcomes of the file.
+     *
+     * @param into map receiving the outcome codes of every test
+     * @return number of lines read
+     */
+    private int read(Map<String, String> into) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        int lineCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf('\t');
+                if (separator > 0) {
+                    into.merge(line.substring(0, separator), line.substring(separator + 1), (previous, current) -> trim(previous + current));
+                    lineCount++;
+                }
+            }
+        }
+        return lineCount;
+    }
+
+    /**
+     * Appends the outcomes of the current run to the file, compacting it if needed.
+     * Saved outcomes become visible through {@link #getOutcomes(String)}.
+     */
+    public synchronized void save() {
+        Map<String, StringBuilder> runOutcomes = new LinkedHashMap<>();
+        Map.Entry<String, Outcome> entry;
+        while ((entry = recorded.poll()) != null) {
+            runOutcomes.computeIfAbsent(entry.getKey(), key -> new StringBuilder()).append(entry.getValue().getCode());
+        }
+        if (runOutcomes.isEmpty()) {
+            return;
+        }
+        boolean saved = false;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel lock = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                lock.lock(); // Released when the channel is closed
+                // Other JVMs may have appended to the file since it was loaded
+                Map<String, String> current = new HashMap<>();
+                int lineCount = read(current);
+                runOutcomes.forEach((uniqueId, codes) -> current.merge(uniqueId, codes.toString(), (previous, added) -> trim(previous + added)));
+                if (lineCount + runOutcomes.size() > 2 * current.size()) {
+                    write(new TreeMap<>(current));
+                } else {
+                    List<String> lines = new ArrayList<>();
+                    runOutcomes.forEach((uniqueId, codes) -> lines.add(uniqueId + "\t" + codes));
+                    Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                outcomes.putAll(current);
+                saved = true;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write flakiness ledger to {}: {}", file, e.getMessage());
+        }
+        if (!saved) {
+            runOutcomes.forEach((uniqueId, codes) -> outcomes.merge(uniqueId, codes.toString(), (previous, added) -> trim(previous + added)));
+        }
+    }
+
+    private void write(Map<String, String> compacted) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "flakiness-ledger", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : compacted.entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue() + System.lineSeparator());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String trim(String codes) {
+        return codes.length() > HISTORY_SIZE ? codes.substring(codes.length() - HISTORY_SIZE) : codes;
+    }
+
+    private static final class Holder {
+
+        private static final FlakinessLedger INSTANCE = new FlakinessLedger(LEDGER_FILE);
+    }
+}
@@ -0,0 +1,41 @@
+package io.nsingla.junit5.history;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Saves {@link FlakinessLedger} at the end of the run and logs the tests that passed on a retry in their recorded history.
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}.
+ */
+public class FlakinessLedgerListener implements TestExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlakinessLedgerListener.class);
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        FlakinessLedger ledger = FlakinessLedger.getInstance();
+        ledger.save();
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        ledger.getAllOutcomes().entrySet().stream()
+            .filter(entry -> count(entry.getValue(), FlakinessLedger.Outcome.PASSED_ON_RETRY) > 0)
+            .sorted(Comparator.comparingDouble((Map.Entry<String, String> entry) -> flakiness(entry.getValue())).reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> logger.info("Flaky test {}: passed on retry {} time(s) out of {} run(s).", entry.getKey(),
+                count(entry.getValue(), FlakinessLedger.Outcome.PASSED_ON_RETRY), entry.getValue().length()));
+    }
+
+    private static double flakiness(String outcomes) {
+        return (double) count(outcomes, FlakinessLedger.Outcome.PASSED_ON_RETRY) / outcomes.length();
+    }
+
+    private static long count(String outcomes, FlakinessLedger.Outcome outcome) {
+        return outcomes.chars().filter(code -> code == outcome.getCode()).count();
+    }
+}
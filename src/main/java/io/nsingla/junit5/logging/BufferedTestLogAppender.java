@@ -0,0 +1,271 @@
+package io.nsingla.junit5.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Logback appender holding back the logs of running tests, and only writing those of failed or aborted (e.g. retried) tests.
+ * <p>
+ *     Events logged with the {@code methodName} MDC value set by {@code TestBase} are buffered per test, at most
+ *     {@code maxEventsPerTest} (defaults to {@code 10000}) events each, older events being dropped first. {@code TestWatcher}
+ *     discards the buffer of a successful test and flushes the buffer of a failed or aborted test in one piece, so logs of
+ *     concurrent tests don't interleave. Other events are written as they come.
+ * </p>
+ * <p>
+ *     Events are written to the attached appenders by a single writer thread, through a queue of at most
+ *     {@code queueSize} (defaults to {@code 1024}) entries. When {@code enabled} is {@code false}, events are written
+ *     synchronously as they come, like the attached appenders would.
+ * </p>
+ * <pre>{@code
+ * <appender name="TEST_LOGS" class="io.nsingla.junit5.logging.BufferedTestLogAppender">
+ *     <enabled>${bufferTestLogs:-false}</enabled>
+ *     <appender-ref ref="STDOUT"/>
+ * </appender>
+ * }</pre>
+ */
+public class BufferedTestLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    public static final String TEST_NAME_KEY = "methodName";
+
+    private static final Set<BufferedTestLogAppender> appenders = new CopyOnWriteArraySet<>();
+    private static final List<ILoggingEvent> END = Collections.emptyList();
+
+    private final AppenderAttachableImpl<ILoggingEvent> attached = new AppenderAttachableImpl<>();
+    private final Map<String, TestBuffer> buffers = new ConcurrentHashMap<>();
+
+    private boolean enabled = false;
+    private int maxEventsPerTest = 10000;
+    private int queueSize = 1024;
+
+    private BlockingQueue<List<ILoggingEvent>> queue;
+    private Thread writer;
+    private Thread shutdownHook;
+
+    /**
+     * Discards the logs buffered for a test.
+     *
+     * @param testName {@code methodName} MDC value of the test
+     */
+    public static void discard(String testName) {
+        for (BufferedTestLogAppender appender : appenders) {
+            appender.buffers.remove(testName);
+        }
+    }
+
+    /**
+     * Writes the logs buffered for a test, without interleaving them with the logs of other tests.
+     *
+     * @param testName {@code methodName} MDC value of the test
+     */
+    public static void flush(String testName) {
+        for (BufferedTestLogAppender appender : appenders) {
+            TestBuffer buffer = appender.buffers.remove(testName);
+            if (buffer != null) {
+                appender.write(buffer.drain(appender.getLoggerContext(), testName));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!attached.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to " + getName());
+            return;
+        }
+        if (enabled) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            writer = new Thread(this::writeLoop, "buffered-test-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            shutdownHook = new Thread(this::stop, "buffered-test-log-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            appenders.add(this);
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        if (enabled) {
+            appenders.remove(this);
+            // Outcome of tests still running is unknown, keep their logs
+            for (String testName : buffers.keySet()) {
+                TestBuffer buffer = buffers.remove(testName);
+                if (buffer != null) {
+                    write(buffer.drain(getLoggerContext(), testName));
+                }
+            }
+            write(END);
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // JVM is shutting down
+                }
+            }
+        }
+        attached.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!enabled) {
+            attached.appendLoopOnAppenders(event);
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        String testName = event.getMDCPropertyMap().get(TEST_NAME_KEY);
+        if (testName == null) {
+            write(Collections.singletonList(event));
+        } else {
+            buffers.computeIfAbsent(testName, name -> new TestBuffer(maxEventsPerTest)).add(event);
+        }
+    }
+
+    private void write(List<ILoggingEvent> events) {
+        try {
+            queue.put(events);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addWarn("Interrupted while writing buffered test logs");
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            List<ILoggingEvent> events;
+            while ((events = queue.take()) != END) {
+                for (ILoggingEvent event : events) {
+                    attached.appendLoopOnAppenders(event);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LoggerContext getLoggerContext() {
+        return (LoggerContext) getContext();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEventsPerTest() {
+        return maxEventsPerTest;
+    }
+
+    public void setMaxEventsPerTest(int maxEventsPerTest) {
+        this.maxEventsPerTest = maxEventsPerTest;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        attached.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return attached.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return attached.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return attached.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        attached.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return attached.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return attached.detachAppender(name);
+    }
+
+    /**
+     * Bounded buffer of the events of one test, dropping the oldest events once full.
+     */
+    private static final class TestBuffer {
+
+        private final int maxEvents;
+        private final ArrayDeque<ILoggingEvent> events = new ArrayDeque<>();
+        private long dropped = 0;
+
+        TestBuffer(int maxEvents) {
+            this.maxEvents = maxEvents;
+        }
+
+        synchronized void add(ILoggingEvent event) {
+            if (events.size() >= maxEvents) {
+                events.pollFirst();
+                dropped++;
+            }
+            events.addLast(event);
+        }
+
+        synchronized List<ILoggingEvent> drain(LoggerContext context, String testName) {
+            List<ILoggingEvent> drained = new ArrayList<>(events.size() + 1);
+            if (dropped > 0) {
+                LoggingEvent notice = new LoggingEvent(BufferedTestLogAppender.class.getName(), context.getLogger(BufferedTestLogAppender.class), Level.WARN,
+                    dropped + " earlier log events of the test were dropped, only the last " + maxEvents + " are kept", null, null);
+                notice.setMDCPropertyMap(Collections.singletonMap(TEST_NAME_KEY, testName));
+                drained.add(notice);
+            }
+            drained.addAll(events);
+            events.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package io.nsingla.junit5.metrics;
+
+import io.nsingla.junit5.extensions.TestRetriedException;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one JSON line per test attempt into the file set by {@code attemptLogFile} system property, defaults to
+ * {@code target/junit5-framework/attempts.jsonl}, when {@code attemptLog} system property is {@code true}.
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}.
+ * <p>
+ *     A record holds the test unique id, class, method and display name, its {@link Status}, the retry index of the attempt
+ *     ({@code 0} for the first one), the number of in-place retries before the attempt, the class of the root cause of the
+ *     failure, the start time (epoch milliseconds) and the duration. Every attempt retried in place gets its own record,
+ *     from the {@link #IN_PLACE_RETRY_ENTRY} report entry published before the next attempt. Records are buffered as attempts
+ *     finish and written to the file as whole lines, once the buffer is full and every {@code attemptLogFlushInterval}
+ *     milliseconds (defaults to {@code 1000}) by a daemon thread, so the file can be read while the run goes on and stays
+ *     usable if the JVM dies. Only running tests are kept in memory.
+ * </p>
+ */
+public class AttemptLogListener implements TestExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttemptLogListener.class);
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("attemptLog", "false"));
+    private static final Path LOG_FILE = Paths.get(System.getProperty("attemptLogFile", "target/junit5-framework/attempts.jsonl"));
+    private static final long FLUSH_INTERVAL_MILLIS = Long.parseLong(System.getProperty("attemptLogFlushInterval", "1000"));
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_MESSAGE_LENGTH = 256;
+
+    /** Report entry key holding the retry index of an attempt, published by {@code RetryHandlerExtension}. */
+    public static final String RETRY_ENTRY = "retryAttempt";
+
+    /** Report entry key published by {@code RetryHandlerExtension} for every in-place retry, see {@link #inPlaceRetryEntry(int, Throwable)}. */
+    public static final String IN_PLACE_RETRY_ENTRY = "inPlaceRetry";
+
+    private static final String ROOT_CAUSE_ENTRY = "inPlaceRetryRootCause";
+    private static final String MESSAGE_ENTRY = "inPlaceRetryMessage";
+
+    /**
+     * Status of an attempt.
+     */
+    public enum Status {
+        PASSED,
+        FAILED,
+        /** Failed, and retried by another attempt. */
+        RETRIED,
+        /** Aborted, e.g. by a failed assumption. */
+        ABORTED,
+        SKIPPED
+    }
+
+    private final Map<String, Attempt> running = new ConcurrentHashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private FileChannel channel = null;
+    private ScheduledExecutorService flusher = null;
+
+    /**
+     * Checks if attempts are logged.
+     *
+     * @return true if {@code attemptLog} system property is {@code true}
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Creates the report entry of an in-place retry, ending the failed attempt.
+     *
+     * @param inPlaceRetry index of the in-place retry about to start, {@code 1} for the first one
+     * @param failure      failure of the previous attempt
+     * @return key-value pairs of the report entry
+     */
+    public static Map<String, String> inPlaceRetryEntry(int inPlaceRetry, Throwable failure) {
+        Map<String, String> entry = new HashMap<>();
+        entry.put(IN_PLACE_RETRY_ENTRY, String.valueOf(inPlaceRetry));
+        Throwable rootCause = rootCause(failure);
+        if (rootCause != null) {
+            entry.put(ROOT_CAUSE_ENTRY, rootCause.getClass().getName());
+        }
+        if (failure != null && failure.getMessage() != null && !failure.getMessage().isBlank()) {
+            entry.put(MESSAGE_ENTRY, failure.getMessage());
+        }
+        return entry;
+    }
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            if (LOG_FILE.getParent() != null) {
+                Files.createDirectories(LOG_FILE.getParent());
+            }
+            synchronized (buffer) {
+                channel = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+                    Thread thread = new Thread(runnable, "attempt-log-flusher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                flusher.scheduleWithFixedDelay(this::flushBuffer, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to open attempt log {}: {}", LOG_FILE, e.getMessage());
+        }
+    }
+
+    private void flushBuffer() {
+        synchronized (buffer) {
+            flush();
+        }
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (ENABLED && testIdentifier.isTest()) {
+            running.put(testIdentifier.getUniqueId(), new Attempt());
+        }
+    }
+
+    @Override
+    public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+        Attempt attempt = ENABLED ? running.get(testIdentifier.getUniqueId()) : null;
+        if (attempt == null) {
+            return;
+        }
+        Map<String, String> values = entry.getKeyValuePairs();
+        if (values.containsKey(RETRY_ENTRY)) {
+            attempt.retry = Integer.parseInt(values.get(RETRY_ENTRY));
+        }
+        if (values.containsKey(IN_PLACE_RETRY_ENTRY)) {
+            // The previous attempt failed and is retried in place, the entry is published right before the next attempt starts
+            write(record(testIdentifier, attempt, Status.RETRIED, values.get(ROOT_CAUSE_ENTRY), values.get(MESSAGE_ENTRY)));
+            attempt.inPlaceRetries = Integer.parseInt(values.get(IN_PLACE_RETRY_ENTRY));
+            attempt.start();
+        }
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        if (ENABLED && testIdentifier.isTest()) {
+            write(record(testIdentifier, new Attempt(), Status.SKIPPED, null, reason));
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        Attempt attempt = ENABLED ? running.remove(testIdentifier.getUniqueId()) : null;
+        if (attempt == null) {
+            return;
+        }
+        Throwable throwable = testExecutionResult.getThrowable().orElse(null);
+        Status status;
+        switch (testExecutionResult.getStatus()) {
+            case SUCCESSFUL:
+                status = Status.PASSED;
+                break;
+            case ABORTED:
+                status = throwable instanceof TestRetriedException ? Status.RETRIED : Status.ABORTED;
+                break;
+            default:
+                status = Status.FAILED;
+        }
+        if (throwable instanceof TestRetriedException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        Throwable rootCause = rootCause(throwable);
+        write(record(testIdentifier, attempt, status, rootCause != null ? rootCause.getClass().getName() : null,
+            throwable != null ? throwable.getMessage() : null));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (buffer) {
+            if (flusher != null) {
+                flusher.shutdownNow();
+                flusher = null;
+            }
+            flush();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close attempt log {}: {}", LOG_FILE, e.getMessage());
+                }
+                channel = null;
+                logger.info("Test attempts written to {}", LOG_FILE.toAbsolutePath());
+            }
+        }
+    }
+
+    private static String record(TestIdentifier testIdentifier, Attempt attempt, Status status, String rootCause, String message) {
+        StringBuilder json = new StringBuilder(256)
+            .append("{\"id\": ").append(ExecutionMetricsReport.quote(testIdentifier.getUniqueId()));
+        TestSource source = testIdentifier.getSource().orElse(null);
+        if (source instanceof MethodSource) {
+            json.append(", \"class\": ").append(ExecutionMetricsReport.quote(((MethodSource) source).getClassName()))
+                .append(", \"method\": ").append(ExecutionMetricsReport.quote(((MethodSource) source).getMethodName()));
+        }
+        json.append(", \"name\": ").append(ExecutionMetricsReport.quote(testIdentifier.getDisplayName()))
+            .append(", \"status\": \"").append(status).append('"')
+            .append(", \"retry\": ").append(attempt.retry)
+            .append(", \"inPlaceRetries\": ").append(attempt.inPlaceRetries)
+            .append(", \"startMillis\": ").append(attempt.startMillis)
+            .append(", \"durationMillis\": ").append(status == Status.SKIPPED ? 0 : (System.nanoTime() - attempt.startNanos) / 1_000_000);
+        if (rootCause != null) {
+            json.append(", \"rootCause\": ").append(ExecutionMetricsReport.quote(rootCause));
+        }
+        if (message != null) {
+            String truncated = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) + "..." : message;
+            json.append(", \"message\": ").append(ExecutionMetricsReport.quote(truncated));
+        }
+        return json.append("}\n").toString();
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null && cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private void write(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        synchronized (buffer) {
+            if (channel == null) {
+                return;
+            }
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.remaining()) {
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        }
+    }
+
+    private void flush() {
+        if (channel == null || buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write attempt log {}, disabling it: {}", LOG_FILE, e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already failing
+            }
+            channel = null;
+        }
+    }
+
+    private static final class Attempt {
+
+        private volatile long startMillis = System.currentTimeMillis();
+        private volatile long startNanos = System.nanoTime();
+        private volatile int retry = 0;
+        private volatile int inPlaceRetries = 0;
+
+        private void start() {
+            startMillis = System.currentTimeMillis();
+            startNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.nsingla.junit5.metrics;
+
+import io.nsingla.junit5.history.DurationHistory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution metrics of the current run, recorded when {@code executionMetrics} system property is {@code true}.
+ * <p>
+ *     Wall time, time spent in before/after hooks and start offset (time between the start of the parent container and
+ *     the start of the test) are recorded in {@link LatencyHistogram}s for the whole run and per class, along with per test
+ *     totals and the number of retries. The start offset includes the time spent running the earlier tests of the same
+ *     container, it's only a wait time for tests starting right away once a worker is available.
+ *     Recording is lock-free and can be done concurrently by test workers.
+ * </p>
+ *
+ * @see ExecutionMetricsListener
+ * @see ExecutionMetricsExtension
+ */
+public final class ExecutionMetrics {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("executionMetrics", "false"));
+
+    final LatencyHistogram wallTime = new LatencyHistogram();
+    final LatencyHistogram hooksTime = new LatencyHistogram();
+    final LatencyHistogram startOffset = new LatencyHistogram();
+    final LongAdder retries = new LongAdder();
+    final LongAdder busyNanos = new LongAdder();
+    final Map<String, ClassMetrics> classes = new ConcurrentHashMap<>();
+    final Map<String, TestMetrics> tests = new ConcurrentHashMap<>();
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakRunning = new AtomicInteger();
+
+    private volatile int parallelism = 1;
+    private volatile long runStartNanos = System.nanoTime();
+    private volatile long runEndNanos = 0;
+
+    private ExecutionMetrics() {
+    }
+
+    /**
+     * Checks if execution metrics are recorded for the current run.
+     *
+     * @return value of {@code executionMetrics} system property
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the metrics of the current run.
+     *
+     * @return shared {@link ExecutionMetrics}
+     */
+    public static ExecutionMetrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    void runStarted(int parallelism) {
+        this.parallelism = parallelism;
+        runStartNanos = System.nanoTime();
+    }
+
+    void runFinished() {
+        runEndNanos = System.nanoTime();
+    }
+
+    void testStarted() {
+        int current = running.incrementAndGet();
+        int peak = peakRunning.get();
+        while (current > peak && !peakRunning.compareAndSet(peak, current)) {
+            peak = peakRunning.get();
+        }
+    }
+
+    void testFinished(String className, String testKey, long wallNanos, long startOffsetNanos, boolean retried) {
+        running.decrementAndGet();
+        busyNanos.add(wallNanos);
+        wallTime.record(wallNanos);
+        startOffset.record(startOffsetNanos);
+        ClassMetrics classMetrics = getClassMetrics(className);
+        classMetrics.wallTime.record(wallNanos);
+        classMetrics.startOffsetNanos.add(startOffsetNanos);
+        TestMetrics testMetrics = getTestMetrics(testKey);
+        testMetrics.add(TestMetrics.INVOCATIONS, 1);
+        testMetrics.add(TestMetrics.WALL_NANOS, wallNanos);
+        testMetrics.add(TestMetrics.START_OFFSET_NANOS, startOffsetNanos);
+        testMetrics.max(TestMetrics.MAX_WALL_NANOS, wallNanos);
+        if (retried) {
+            retries.increment();
+            classMetrics.retries.increment();
+            testMetrics.add(TestMetrics.RETRIES, 1);
+        }
+    }
+
+    /**
+     * Records the time spent in before and after hooks of a test invocation.
+     *
+     * @param className  class of the test
+     * @param testKey    {@link DurationHistory#methodKey(org.junit.platform.engine.support.descriptor.MethodSource) key} of the test method
+     * @param hooksNanos time spent in hooks, in nanoseconds
+     */
+    public void recordHooks(String className, String testKey, long hooksNanos) {
+        hooksTime.record(hooksNanos);
+        getClassMetrics(className).hooksNanos.add(hooksNanos);
+        getTestMetrics(testKey).add(TestMetrics.HOOKS_NANOS, hooksNanos);
+    }
+
+    private ClassMetrics getClassMetrics(String className) {
+        ClassMetrics classMetrics = classes.get(className);
+        return classMetrics != null ? classMetrics : classes.computeIfAbsent(className, name -> new ClassMetrics());
+    }
+
+    private TestMetrics getTestMetrics(String key) {
+        TestMetrics testMetrics = tests.get(key);
+        return testMetrics != null ? testMetrics : tests.computeIfAbsent(key, name -> new TestMetrics());
+    }
+
+    long getRunNanos() {
+        long end = runEndNanos;
+        return (end != 0 ? end : System.nanoTime()) - runStartNanos;
+    }
+
+    int getPeakRunning() {
+        return peakRunning.get();
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Metrics of a test class.
+     */
+    static final class ClassMetrics {
+
+        final LatencyHistogram wallTime = new LatencyHistogram();
+        final LongAdder hooksNanos = new LongAdder();
+        final LongAdder startOffsetNanos = new LongAdder();
+        final LongAdder retries = new LongAdder();
+    }
+
+    /**
+     * Totals of a test method, all its invocations included.
+     */
+    static final class TestMetrics {
+
+        static final int INVOCATIONS = 0;
+        static final int RETRIES = 1;
+        static final int WALL_NANOS = 2;
+        static final int MAX_WALL_NANOS = 3;
+        static final int HOOKS_NANOS = 4;
+        static final int START_OFFSET_NANOS = 5;
+
+        private final AtomicLongArray values = new AtomicLongArray(6);
+
+        void add(int metric, long value) {
+            values.addAndGet(metric, value);
+        }
+
+        void max(int metric, long value) {
+            long current = values.get(metric);
+            while (value > current && !values.compareAndSet(metric, current, value)) {
+                current = values.get(metric);
+            }
+        }
+
+        long get(int metric) {
+            return values.get(metric);
+        }
+    }
+
+    private static final class Holder {
+
+        private static final ExecutionMetrics INSTANCE = new ExecutionMetrics();
+    }
+}
@@ -0,0 +1,57 @@
+package io.nsingla.junit5.metrics;
+
+import io.nsingla.junit5.history.DurationHistory;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+/**
+ * Extension recording the time spent in before and after hooks of tests into {@link ExecutionMetrics},
+ * from its {@code beforeEach} callback to the test method, and from the test method to its {@code afterEach} callback.
+ */
+public class ExecutionMetricsExtension implements BeforeEachCallback, BeforeTestExecutionCallback, AfterTestExecutionCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ExecutionMetricsExtension.class);
+    private static final String TIMES_KEY = "times";
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (ExecutionMetrics.isEnabled()) {
+            // before hooks start time, then after hooks start time
+            context.getStore(NAMESPACE).put(TIMES_KEY, new long[] {System.nanoTime(), 0});
+        }
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        long[] times = getTimes(context);
+        if (times != null) {
+            times[0] = System.nanoTime() - times[0];
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long[] times = getTimes(context);
+        if (times != null) {
+            times[1] = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        long[] times = getTimes(context);
+        if (times != null && times[1] != 0) {
+            MethodSource source = MethodSource.from(context.getRequiredTestClass(), context.getRequiredTestMethod());
+            ExecutionMetrics.getInstance().recordHooks(source.getClassName(), DurationHistory.methodKey(source),
+                times[0] + System.nanoTime() - times[1]);
+        }
+    }
+
+    private static long[] getTimes(ExtensionContext context) {
+        return ExecutionMetrics.isEnabled() ? context.getStore(NAMESPACE).get(TIMES_KEY, long[].class) : null;
+    }
+}
@@ -0,0 +1,93 @@
+package io.nsingla.junit5.metrics;
+
+import io.nsingla.junit5.CustomExecutionStrategy;
+import io.nsingla.junit5.extensions.TestRetriedException;
+import io.nsingla.junit5.history.DurationHistory;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.config.PrefixedConfigurationParameters;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records {@link ExecutionMetrics} of tests and writes their report at the end of the run,
+ * when {@code executionMetrics} system property is {@code true}.
+ * Registered as a {@link TestExecutionListener} through {@code META-INF/services}.
+ *
+ * @see ExecutionMetricsReport
+ */
+public class ExecutionMetricsListener implements TestExecutionListener {
+
+    private static final String PARALLEL_EXECUTION_ENABLED = "junit.jupiter.execution.parallel.enabled";
+    private static final String PARALLEL_CONFIG_PREFIX = "junit.jupiter.execution.parallel.config.";
+
+    private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        if (ExecutionMetrics.isEnabled()) {
+            ExecutionMetrics.getInstance().runStarted(getParallelism(testPlan.getConfigurationParameters()));
+        }
+    }
+
+    /**
+     * Returns the number of threads tests run on, read the same way as {@link CustomExecutionStrategy}.
+     */
+    private static int getParallelism(ConfigurationParameters configurationParameters) {
+        if (!configurationParameters.getBoolean(PARALLEL_EXECUTION_ENABLED).orElse(false)) {
+            return 1;
+        }
+        return CustomExecutionStrategy.getThreadCount(new PrefixedConfigurationParameters(configurationParameters, PARALLEL_CONFIG_PREFIX));
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        if (!ExecutionMetrics.isEnabled()) {
+            return;
+        }
+        startTimes.put(testIdentifier.getUniqueId(), System.nanoTime());
+        if (testIdentifier.isTest()) {
+            ExecutionMetrics.getInstance().testStarted();
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        if (!ExecutionMetrics.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long startTime = startTimes.remove(testIdentifier.getUniqueId());
+        if (startTime == null || !testIdentifier.isTest()) {
+            return;
+        }
+        TestSource source = testIdentifier.getSource().orElse(null);
+        if (!(source instanceof MethodSource)) {
+            ExecutionMetrics.getInstance().testFinished(testIdentifier.getLegacyReportingName(),
+                testIdentifier.getLegacyReportingName() + "#" + testIdentifier.getDisplayName(), now - startTime, 0, false);
+            return;
+        }
+        MethodSource methodSource = (MethodSource) source;
+        Long parentStartTime = testIdentifier.getParentId().map(startTimes::get).orElse(null);
+        boolean retried = testExecutionResult.getThrowable().filter(TestRetriedException.class::isInstance).isPresent();
+        ExecutionMetrics.getInstance().testFinished(methodSource.getClassName(), DurationHistory.methodKey(methodSource), now - startTime,
+            parentStartTime != null ? startTime - parentStartTime : 0, retried);
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (!ExecutionMetrics.isEnabled()) {
+            return;
+        }
+        startTimes.clear();
+        ExecutionMetrics metrics = ExecutionMetrics.getInstance();
+        metrics.runFinished();
+        ExecutionMetricsReport.write(metrics);
+    }
+}
@@ -0,0 +1,261 @@
+package io.nsingla.junit5.metrics;
+
+import io.nsingla.junit5.fixtures.FixturePool;
+import io.nsingla.junit5.metrics.ExecutionMetrics.ClassMetrics;
+import io.nsingla.junit5.metrics.ExecutionMetrics.TestMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes {@link ExecutionMetrics} as a JSON summary ({@code execution-metrics.json}) and a Prometheus text format file
+ * ({@code execution-metrics.prom}) into the directory set by {@code executionMetricsDir} system property, defaults to
+ * {@code target/junit5-framework}. The {@code executionMetricsSlowest} (defaults to {@code 10}) slowest tests are listed,
+ * along with the wait time and utilization of {@link FixturePool fixture pools}.
+ */
+final class ExecutionMetricsReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionMetricsReport.class);
+    private static final Path REPORT_DIR = Paths.get(System.getProperty("executionMetricsDir", "target/junit5-framework"));
+    private static final int SLOWEST_TESTS = Integer.parseInt(System.getProperty("executionMetricsSlowest", "10"));
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private ExecutionMetricsReport() {
+    }
+
+    static void write(ExecutionMetrics metrics) {
+        try {
+            Files.createDirectories(REPORT_DIR);
+            try (Writer writer = Files.newBufferedWriter(REPORT_DIR.resolve("execution-metrics.json"), StandardCharsets.UTF_8)) {
+                writeJson(metrics, writer);
+            }
+            try (Writer writer = Files.newBufferedWriter(REPORT_DIR.resolve("execution-metrics.prom"), StandardCharsets.UTF_8)) {
+                writePrometheus(metrics, writer);
+            }
+            logger.info("Execution metrics written to {}", REPORT_DIR.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Unable to write execution metrics to {}: {}", REPORT_DIR, e.getMessage());
+        }
+    }
+
+    private static void writeJson(ExecutionMetrics metrics, Writer writer) throws IOException {
+        long runNanos = metrics.getRunNanos();
+        writer.write("{\n");
+        writer.write("  \"runSeconds\": " + seconds(runNanos) + ",\n");
+        writer.write("  \"tests\": " + metrics.wallTime.getCount() + ",\n");
+        writer.write("  \"retries\": " + metrics.retries.sum() + ",\n");
+        writer.write("  \"workers\": {\"peak\": " + metrics.getPeakRunning() + ", \"average\": " + format(averageConcurrency(metrics))
+            + ", \"parallelism\": " + metrics.getParallelism() + ", \"utilization\": " + format(utilization(metrics)) + "},\n");
+        writer.write("  \"wallTime\": " + histogramJson(metrics.wallTime) + ",\n");
+        writer.write("  \"hooksTime\": " + histogramJson(metrics.hooksTime) + ",\n");
+        writer.write("  \"startOffset\": " + histogramJson(metrics.startOffset) + ",\n");
+        writer.write("  \"classes\": {");
+        String separator = "\n";
+        for (Map.Entry<String, ClassMetrics> entry : new TreeMap<>(metrics.classes).entrySet()) {
+            ClassMetrics classMetrics = entry.getValue();
+            writer.write(separator + "    " + quote(entry.getKey()) + ": {\"wallTime\": " + histogramJson(classMetrics.wallTime)
+                + ", \"hooksSeconds\": " + seconds(classMetrics.hooksNanos.sum())
+                + ", \"startOffsetSeconds\": " + seconds(classMetrics.startOffsetNanos.sum())
+                + ", \"retries\": " + classMetrics.retries.sum() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  },\n");
+        writer.write("  \"slowestTests\": [");
+        separator = "\n";
+        for (Map.Entry<String, TestMetrics> entry : slowestTests(metrics)) {
+            TestMetrics testMetrics = entry.getValue();
+            writer.write(separator + "    {\"test\": " + quote(entry.getKey())
+                + ", \"wallSeconds\": " + seconds(testMetrics.get(TestMetrics.WALL_NANOS))
+                + ", \"maxWallSeconds\": " + seconds(testMetrics.get(TestMetrics.MAX_WALL_NANOS))
+                + ", \"hooksSeconds\": " + seconds(testMetrics.get(TestMetrics.HOOKS_NANOS))
+                + ", \"startOffsetSeconds\": " + seconds(testMetrics.get(TestMetrics.START_OFFSET_NANOS))
+                + ", \"invocations\": " + testMetrics.get(TestMetrics.INVOCATIONS)
+                + ", \"retries\": " + testMetrics.get(TestMetrics.RETRIES) + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ],\n");
+        writer.write("  \"fixturePools\": {");
+        separator = "\n";
+        for (FixturePool<?> pool : fixturePools()) {
+            writer.write(separator + "    " + quote(pool.getName()) + ": {\"maxSize\": " + pool.getMaxSize()
+                + ", \"peakLeased\": " + pool.getPeakLeased()
+                + ", \"utilization\": " + format(pool.getUtilization())
+                + ", \"created\": " + pool.getCreated()
+                + ", \"discarded\": " + pool.getDiscarded()
+                + ", \"recycled\": " + pool.getRecycled()
+                + ", \"unhealthy\": " + pool.getUnhealthy()
+                + ", \"waitTime\": " + histogramJson(pool.getWaitTime()) + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  }\n}\n");
+    }
+
+    private static void writePrometheus(ExecutionMetrics metrics, Writer writer) throws IOException {
+        writeGauge(writer, "junit5_run_duration_seconds", "Wall time of the run.", seconds(metrics.getRunNanos()));
+        writeCounter(writer, "junit5_tests_total", "Number of executed tests, retries included.", String.valueOf(metrics.wallTime.getCount()));
+        writeCounter(writer, "junit5_retries_total", "Number of retried test executions.", String.valueOf(metrics.retries.sum()));
+        writeGauge(writer, "junit5_workers_peak", "Highest number of concurrently running tests.", String.valueOf(metrics.getPeakRunning()));
+        writeGauge(writer, "junit5_workers_average", "Average number of concurrently running tests.", format(averageConcurrency(metrics)));
+        writeGauge(writer, "junit5_workers_parallelism", "Number of threads tests run on.", String.valueOf(metrics.getParallelism()));
+        writeGauge(writer, "junit5_parallelism_utilization_ratio", "Busy time of tests over the run time of all threads.", format(utilization(metrics)));
+        writeSummary(writer, "junit5_test_duration_seconds", "Wall time of tests.", metrics.wallTime);
+        writeSummary(writer, "junit5_test_hooks_seconds", "Time spent in before and after hooks of tests.", metrics.hooksTime);
+        writeSummary(writer, "junit5_test_start_offset_seconds", "Time between the start of the parent container and the start of tests.", metrics.startOffset);
+
+        writer.write("# HELP junit5_class_test_duration_seconds Wall time of tests per class.\n");
+        writer.write("# TYPE junit5_class_test_duration_seconds summary\n");
+        Map<String, ClassMetrics> classes = new TreeMap<>(metrics.classes);
+        for (Map.Entry<String, ClassMetrics> entry : classes.entrySet()) {
+            writeSummarySamples(writer, "junit5_class_test_duration_seconds", "class=" + label(entry.getKey()) + ",", entry.getValue().wallTime);
+        }
+        writer.write("# HELP junit5_class_retries_total Number of retried test executions per class.\n");
+        writer.write("# TYPE junit5_class_retries_total counter\n");
+        for (Map.Entry<String, ClassMetrics> entry : classes.entrySet()) {
+            writer.write("junit5_class_retries_total{class=" + label(entry.getKey()) + "} " + entry.getValue().retries.sum() + "\n");
+        }
+        writer.write("# HELP junit5_slowest_test_duration_seconds Total wall time of the slowest tests.\n");
+        writer.write("# TYPE junit5_slowest_test_duration_seconds gauge\n");
+        for (Map.Entry<String, TestMetrics> entry : slowestTests(metrics)) {
+            writer.write("junit5_slowest_test_duration_seconds{test=" + label(entry.getKey()) + "} "
+                + seconds(entry.getValue().get(TestMetrics.WALL_NANOS)) + "\n");
+        }
+
+        List<FixturePool<?>> pools = fixturePools();
+        writer.write("# HELP junit5_fixture_pool_wait_seconds Time tests waited for an instance of a fixture pool.\n");
+        writer.write("# TYPE junit5_fixture_pool_wait_seconds summary\n");
+        for (FixturePool<?> pool : pools) {
+            writeSummarySamples(writer, "junit5_fixture_pool_wait_seconds", "pool=" + label(pool.getName()) + ",", pool.getWaitTime());
+        }
+        writer.write("# HELP junit5_fixture_pool_utilization_ratio Leased time over available time of the instances of a fixture pool.\n");
+        writer.write("# TYPE junit5_fixture_pool_utilization_ratio gauge\n");
+        for (FixturePool<?> pool : pools) {
+            writer.write("junit5_fixture_pool_utilization_ratio{pool=" + label(pool.getName()) + "} " + format(pool.getUtilization()) + "\n");
+        }
+        writer.write("# HELP junit5_fixture_pool_discarded_total Number of instances of a fixture pool destroyed because their test failed.\n");
+        writer.write("# TYPE junit5_fixture_pool_discarded_total counter\n");
+        for (FixturePool<?> pool : pools) {
+            writer.write("junit5_fixture_pool_discarded_total{pool=" + label(pool.getName()) + "} " + pool.getDiscarded() + "\n");
+        }
+    }
+
+    private static void writeGauge(Writer writer, String name, String help, String value) throws IOException {
+        writeSample(writer, name, "gauge", help, value);
+    }
+
+    private static void writeCounter(Writer writer, String name, String help, String value) throws IOException {
+        writeSample(writer, name, "counter", help, value);
+    }
+
+    private static void writeSample(Writer writer, String name, String type, String help, String value) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+        writer.write(name + " " + value + "\n");
+    }
+
+    private static void writeSummary(Writer writer, String name, String help, LatencyHistogram histogram) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " summary\n");
+        writeSummarySamples(writer, name, "", histogram);
+    }
+
+    private static void writeSummarySamples(Writer writer, String name, String labels, LatencyHistogram histogram) throws IOException {
+        for (double quantile : QUANTILES) {
+            writer.write(name + "{" + labels + "quantile=\"" + quantile + "\"} " + seconds(histogram.getValueAtQuantile(quantile)) + "\n");
+        }
+        String sampleLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        writer.write(name + "_sum" + sampleLabels + " " + seconds(histogram.getSum()) + "\n");
+        writer.write(name + "_count" + sampleLabels + " " + histogram.getCount() + "\n");
+    }
+
+    private static String histogramJson(LatencyHistogram histogram) {
+        StringBuilder json = new StringBuilder("{\"count\": ").append(histogram.getCount());
+        for (double quantile : QUANTILES) {
+            json.append(", \"p").append(Math.round(quantile * 100)).append("Seconds\": ").append(seconds(histogram.getValueAtQuantile(quantile)));
+        }
+        return json.append(", \"maxSeconds\": ").append(seconds(histogram.getMax()))
+            .append(", \"sumSeconds\": ").append(seconds(histogram.getSum())).append('}').toString();
+    }
+
+    private static List<Map.Entry<String, TestMetrics>> slowestTests(ExecutionMetrics metrics) {
+        List<Map.Entry<String, TestMetrics>> tests = new ArrayList<>(metrics.tests.entrySet());
+        tests.sort(Comparator.comparingLong((Map.Entry<String, TestMetrics> entry) -> entry.getValue().get(TestMetrics.WALL_NANOS)).reversed());
+        return tests.subList(0, Math.min(SLOWEST_TESTS, tests.size()));
+    }
+
+    private static List<FixturePool<?>> fixturePools() {
+        List<FixturePool<?>> pools = new ArrayList<>(FixturePool.getAll());
+        pools.sort(Comparator.comparing(FixturePool::getName));
+        return pools;
+    }
+
+    private static double averageConcurrency(ExecutionMetrics metrics) {
+        long runNanos = metrics.getRunNanos();
+        return runNanos > 0 ? (double) metrics.busyNanos.sum() / runNanos : 0;
+    }
+
+    /**
+     * Busy time of tests over the run time times the parallelism. Tests running on compensating threads, while others are
+     * blocked, can make it greater than {@code 1}.
+     */
+    private static double utilization(ExecutionMetrics metrics) {
+        return averageConcurrency(metrics) / metrics.getParallelism();
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    /**
+     * Quotes a Prometheus label value: only backslashes, double quotes and line feeds are escaped.
+     */
+    private static String label(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c == '\n') {
+                quoted.append("\\n");
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Quotes a JSON string.
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c == '\n') {
+                quoted.append("\\n");
+            } else if (c < 0x20) {
+                quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,29 @@
+package io.nsingla.junit5.ordering;
+
+import io.nsingla.junit5.history.DurationHistory;
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.util.Comparator;
+
+/**
+ * {@link ClassOrderer} scheduling test classes longest-expected-first, based on {@link DurationHistory}.
+ * Classes without recorded duration are treated as the longest ones, ties are ordered by class name.
+ * Starting long classes first keeps them from running alone at the end of a parallel run.
+ */
+public class LongestFirstClassOrderer implements ClassOrderer {
+
+    private static final Comparator<ClassDescriptor> LONGEST_FIRST = Comparator
+        .comparingLong(LongestFirstClassOrderer::expectedDuration).reversed()
+        .thenComparing(descriptor -> descriptor.getTestClass().getName());
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        context.getClassDescriptors().sort(LONGEST_FIRST);
+    }
+
+    private static long expectedDuration(ClassDescriptor descriptor) {
+        return DurationHistory.getInstance().getDuration(descriptor.getTestClass().getName()).orElse(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,39 @@
+package io.nsingla.junit5.ordering;
+
+import io.nsingla.junit5.history.DurationHistory;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * {@link MethodOrderer} scheduling test methods longest-expected-first, based on {@link DurationHistory}.
+ * Methods without recorded duration are treated as the longest ones, ties are ordered by method name.
+ * Unlike the default {@link MethodOrderer}, it doesn't force methods to run in the same thread.
+ */
+public class LongestFirstMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        Class<?> testClass = context.getTestClass();
+        Comparator<MethodDescriptor> longestFirst = Comparator
+            .comparingLong((MethodDescriptor descriptor) -> expectedDuration(testClass, descriptor)).reversed()
+            .thenComparing(descriptor -> descriptor.getMethod().getName());
+        context.getMethodDescriptors().sort(longestFirst);
+    }
+
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        return Optional.empty();
+    }
+
+    private static long expectedDuration(Class<?> testClass, MethodDescriptor descriptor) {
+        return DurationHistory.getInstance()
+            .getDuration(DurationHistory.methodKey(MethodSource.from(testClass, descriptor.getMethod())))
+            .orElse(Long.MAX_VALUE);
+    }
+}
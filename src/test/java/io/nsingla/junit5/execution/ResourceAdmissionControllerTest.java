@@ -0,0 +1,255 @@
+package io.nsingla.junit5.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.Cost;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The controller is shared by the JVM, so every test uses resources of its own.
+ */
+class ResourceAdmissionControllerTest {
+
+    private final ResourceAdmissionController controller = ResourceAdmissionController.getInstance();
+
+    @Test
+    void admissionWaitsUntilEnoughUnitsAreReleased() throws Exception {
+        Function<String, Optional<String>> configuration = capacities(Map.of("capacity-db", 2));
+        ResourceAdmissionController.Admission first = controller.admit(costs("capacity-db", 2), configuration);
+        assertEquals(Optional.of(0), controller.getAvailableUnits("capacity-db"));
+
+        AtomicReference<ResourceAdmissionController.Admission> second = new AtomicReference<>();
+        Thread waiting = start(() -> second.set(controller.admit(costs("capacity-db", 1), configuration)));
+        awaitBlocked(waiting);
+        assertNull(second.get());
+
+        first.close();
+        waiting.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiting.isAlive());
+        assertEquals(Optional.of(1), controller.getAvailableUnits("capacity-db"));
+        second.get().close();
+        assertEquals(Optional.of(2), controller.getAvailableUnits("capacity-db"));
+    }
+
+    @Test
+    void costsOverTheCapacityAreRejected() {
+        Function<String, Optional<String>> configuration = capacities(Map.of("rejected-db", 2));
+        JUnitException exception = assertThrows(JUnitException.class, () -> controller.admit(costs("rejected-db", 3), configuration));
+        assertTrue(exception.getMessage().contains("must be between 1 and its capacity 2"), exception.getMessage());
+        assertEquals(Optional.of(2), controller.getAvailableUnits("rejected-db"));
+    }
+
+    @Test
+    void resourcesWithoutCapacityArentLimited() throws Exception {
+        controller.admit(costs("unlimited-db", 1000), capacities(Map.of())).close();
+        assertEquals(Optional.empty(), controller.getAvailableUnits("unlimited-db"));
+    }
+
+    @Test
+    void resourcesAreAcquiredInNameOrder() throws Exception {
+        Function<String, Optional<String>> configuration = capacities(Map.of("ordered-a", 1, "ordered-b", 1));
+        SortedMap<String, Integer> costs = new TreeMap<>(Map.of("ordered-b", 1, "ordered-a", 1));
+        // Resources are created on first use
+        controller.admit(costs, configuration).close();
+
+        // While the first resource is held, the second one isn't acquired
+        ResourceAdmissionController.Admission holdingA = controller.admit(costs("ordered-a", 1), configuration);
+        AtomicReference<ResourceAdmissionController.Admission> admitted = new AtomicReference<>();
+        Thread waiting = start(() -> admitted.set(controller.admit(costs, configuration)));
+        awaitBlocked(waiting);
+        assertEquals(Optional.of(1), controller.getAvailableUnits("ordered-b"));
+        holdingA.close();
+        waiting.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiting.isAlive());
+        assertEquals(Optional.of(0), controller.getAvailableUnits("ordered-a"));
+        assertEquals(Optional.of(0), controller.getAvailableUnits("ordered-b"));
+        admitted.get().close();
+
+        // While the second resource is held, the first one is acquired and kept
+        ResourceAdmissionController.Admission holdingB = controller.admit(costs("ordered-b", 1), configuration);
+        waiting = start(() -> admitted.set(controller.admit(costs, configuration)));
+        awaitBlocked(waiting);
+        assertEquals(Optional.of(0), controller.getAvailableUnits("ordered-a"));
+        holdingB.close();
+        waiting.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiting.isAlive());
+        admitted.get().close();
+        assertEquals(Optional.of(1), controller.getAvailableUnits("ordered-a"));
+        assertEquals(Optional.of(1), controller.getAvailableUnits("ordered-b"));
+    }
+
+    @Test
+    void interruptedAdmissionReleasesTheUnitsAcquiredSoFar() throws Exception {
+        Function<String, Optional<String>> configuration = capacities(Map.of("interrupted-a", 2, "interrupted-b", 1));
+        ResourceAdmissionController.Admission holdingB = controller.admit(costs("interrupted-b", 1), configuration);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiting = new Thread(() -> {
+            try {
+                controller.admit(new TreeMap<>(Map.of("interrupted-a", 2, "interrupted-b", 1)), configuration);
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        waiting.start();
+        awaitBlocked(waiting);
+        assertEquals(Optional.of(0), controller.getAvailableUnits("interrupted-a"));
+
+        waiting.interrupt();
+        waiting.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiting.isAlive());
+        assertTrue(failure.get() instanceof InterruptedException, () -> "Failure: " + failure.get());
+        assertEquals(Optional.of(2), controller.getAvailableUnits("interrupted-a"));
+        holdingB.close();
+        assertEquals(Optional.of(1), controller.getAvailableUnits("interrupted-b"));
+    }
+
+    @Test
+    void inFlightUnitsNeverExceedTheCapacity() throws Exception {
+        int capacity = 3;
+        Function<String, Optional<String>> configuration = capacities(Map.of("concurrent-a", capacity, "concurrent-b", capacity));
+        AtomicInteger inFlightA = new AtomicInteger();
+        AtomicInteger inFlightB = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int task = 0; task < 16; task++) {
+                Random random = new Random(task);
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        int unitsA = 1 + random.nextInt(capacity);
+                        int unitsB = 1 + random.nextInt(capacity);
+                        ResourceAdmissionController.Admission admission = controller.admit(
+                            new TreeMap<>(Map.of("concurrent-a", unitsA, "concurrent-b", unitsB)), configuration);
+                        try {
+                            peak.accumulateAndGet(Math.max(inFlightA.addAndGet(unitsA), inFlightB.addAndGet(unitsB)), Math::max);
+                            Thread.yield();
+                        } finally {
+                            inFlightA.addAndGet(-unitsA);
+                            inFlightB.addAndGet(-unitsB);
+                            admission.close();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(peak.get() <= capacity, "Peak of in-flight units: " + peak.get());
+        assertEquals(Optional.of(capacity), controller.getAvailableUnits("concurrent-a"));
+        assertEquals(Optional.of(capacity), controller.getAvailableUnits("concurrent-b"));
+    }
+
+    @Test
+    void methodCostsReplaceClassCostsOfTheSameResource() {
+        CostTests.available.clear();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(CostTests.class))
+            .configurationParameter("resources.precedence-db.capacity", "3")
+            .configurationParameter("resources.precedence-browser.capacity", "2")
+            .build(), listener);
+
+        assertEquals(3, listener.getSummary().getTestsSucceededCount());
+        assertEquals(Map.of("classCost", List.of(2, 2), "methodCost", List.of(0, 2), "additionalCost", List.of(2, 0)), CostTests.available);
+        assertEquals(Optional.of(3), controller.getAvailableUnits("precedence-db"), "Released after the tests");
+        assertEquals(Optional.of(2), controller.getAvailableUnits("precedence-browser"));
+    }
+
+    private static SortedMap<String, Integer> costs(String resource, int units) {
+        return new TreeMap<>(Map.of(resource, units));
+    }
+
+    private static Function<String, Optional<String>> capacities(Map<String, Integer> capacities) {
+        return key -> capacities.entrySet().stream().filter(entry -> key.equals(String.format(ResourceAdmissionController.CAPACITY_KEY, entry.getKey())))
+            .map(entry -> String.valueOf(entry.getValue())).findFirst();
+    }
+
+    private static Thread start(Admitting admitting) {
+        Thread thread = new Thread(() -> {
+            try {
+                admitting.admit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(thread.isAlive() && System.nanoTime() < deadline, "Thread didn't wait for the units: " + thread.getState());
+            Thread.sleep(10);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Admitting {
+
+        void admit() throws InterruptedException;
+    }
+
+    @ExtendWith(ResourceAdmissionExtension.class)
+    @Cost(resource = "precedence-db")
+    static class CostTests {
+
+        // Available units of precedence-db and precedence-browser while each test runs
+        static final Map<String, List<Integer>> available = new ConcurrentHashMap<>();
+
+        @Test
+        void classCost() {
+            record("classCost");
+        }
+
+        @Test
+        @Cost(resource = "precedence-db", units = 3)
+        void methodCost() {
+            record("methodCost");
+        }
+
+        @Test
+        @Cost(resource = "precedence-browser", units = 2)
+        void additionalCost() {
+            record("additionalCost");
+        }
+
+        private static void record(String test) {
+            ResourceAdmissionController controller = ResourceAdmissionController.getInstance();
+            available.put(test, List.of(controller.getAvailableUnits("precedence-db").orElseThrow(),
+                controller.getAvailableUnits("precedence-browser").orElse(2)));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.nsingla.junit5.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Runs tests through the Launcher with {@link VirtualThreadJupiterTestEngine} registered like a project opting in would,
+ * in {@code src/test/resources/META-INF/services}.
+ * <p>
+ *     The engine is only active on Java 21+ with {@code -DexecutorMode=virtual}, e.g.
+ *     {@code mvn test -DexecutorMode=virtual -Dtest=VirtualThreadJupiterTestEngineTest}.
+ * </p>
+ */
+class VirtualThreadJupiterTestEngineTest {
+
+    private static final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void everyTestRunsExactlyOnce() {
+        threads.clear();
+        Map<String, String> results = execute();
+
+        assertEquals(Set.of("first()", "second()", "third()"), results.keySet());
+        assertTrue(results.values().stream().allMatch("SUCCESSFUL"::equals), results::toString);
+    }
+
+    @Test
+    void testsAreDiscoveredByASingleEngine() {
+        TestPlan testPlan = LauncherFactory.create().discover(request());
+
+        List<String> engines = testPlan.getRoots().stream().map(TestIdentifier::getUniqueIdObject)
+            .map(uniqueId -> uniqueId.getEngineId().orElseThrow()).collect(Collectors.toList());
+        assertTrue(engines.contains(VirtualThreadJupiterTestEngine.ENGINE_ID), "Registered engine: " + engines);
+        String engineWithTests = VirtualThreadJupiterTestEngine.isActive() ? VirtualThreadJupiterTestEngine.ENGINE_ID : "junit-jupiter";
+        testPlan.getRoots().forEach(root -> assertEquals(root.getUniqueIdObject().getEngineId().orElseThrow().equals(engineWithTests),
+            !testPlan.getDescendants(root).isEmpty(), "Tests of engine " + root.getUniqueId()));
+    }
+
+    @Test
+    @EnabledIf("io.nsingla.junit5.execution.VirtualThreadJupiterTestEngine#isActive")
+    void testsRunOnVirtualThreads() {
+        threads.clear();
+        Map<String, String> results = execute();
+
+        assertEquals(3, results.size());
+        assertEquals(Set.of("virtual"), threads);
+    }
+
+    private static LauncherDiscoveryRequest request() {
+        return LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(SmokeTests.class))
+            .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+            .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+            .build();
+    }
+
+    /**
+     * Executes {@link SmokeTests}, returning the result of every test by display name.
+     */
+    private static Map<String, String> execute() {
+        Map<String, String> results = new ConcurrentHashMap<>();
+        List<String> duplicates = new CopyOnWriteArrayList<>();
+        LauncherFactory.create().execute(request(), new TestExecutionListener() {
+            @Override
+            public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+                if (testIdentifier.isTest() && results.put(testIdentifier.getDisplayName(), testExecutionResult.getStatus().name()) != null) {
+                    duplicates.add(testIdentifier.getUniqueId());
+                }
+            }
+        });
+        assertEquals(List.of(), duplicates, "Tests ran twice");
+        return results;
+    }
+
+    static class SmokeTests {
+
+        @Test
+        void first() {
+            threads.add(describe(Thread.currentThread()));
+        }
+
+        @Test
+        void second() {
+            threads.add(describe(Thread.currentThread()));
+        }
+
+        @Test
+        void third() {
+            threads.add(describe(Thread.currentThread()));
+        }
+
+        private static String describe(Thread thread) {
+            try {
+                return Boolean.TRUE.equals(Thread.class.getMethod("isVirtual").invoke(thread)) ? "virtual" : "platform";
+            } catch (ReflectiveOperationException e) {
+                return "platform";
+            }
+        }
+    }
+}
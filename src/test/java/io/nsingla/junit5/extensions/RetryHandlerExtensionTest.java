@@ -0,0 +1,51 @@
+package io.nsingla.junit5.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RetryHandlerExtensionTest {
+
+    private static final AtomicInteger attempts = new AtomicInteger(0);
+
+    @Test
+    void timeoutInterruptsHangingInPlaceRetry() {
+        attempts.set(0);
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        long start = System.nanoTime();
+        LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(HangingRetry.class))
+            .build(), summary);
+
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10, "Hanging retry wasn't interrupted");
+        assertEquals(2, attempts.get());
+        assertEquals(1, summary.getSummary().getTotalFailureCount());
+        TestExecutionSummary.Failure failure = summary.getSummary().getFailures().get(0);
+        assertInstanceOf(TimeoutException.class, failure.getException());
+    }
+
+    static class HangingRetry {
+
+        @RetryFailedTest(freshFixture = false, maxRetries = 3)
+        @Timeout(1)
+        void test() throws InterruptedException {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("First attempt fails");
+            }
+            Thread.sleep(60_000);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.nsingla.junit5.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.RetryFailedParameterizedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+class RetryParameterizedTestExtensionTest {
+
+    private static final long FACTORY_MILLIS = 1000;
+
+    private static final Map<String, Long> timestamps = new ConcurrentHashMap<>();
+    private static final Map<String, String> invocations = new ConcurrentHashMap<>();
+
+    @Test
+    void slowFactoriesRunConcurrentlyInDeclarationOrder() {
+        timestamps.clear();
+        invocations.clear();
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(SlowFactories.class))
+            .build(), summary);
+
+        assertEquals(4, summary.getSummary().getTestsSucceededCount());
+        // Each factory started before the other one returned
+        assertTrue(timestamps.get("slowA.start") < timestamps.get("slowB.end"), timestamps::toString);
+        assertTrue(timestamps.get("slowB.start") < timestamps.get("slowA.end"), timestamps::toString);
+        assertEquals(Map.of("1", "a1", "2", "a2", "3", "b1", "4", "b2"), new TreeMap<>(invocations));
+    }
+
+    private static Stream<String> factory(String name, String... values) {
+        timestamps.put(name + ".start", System.nanoTime());
+        try {
+            Thread.sleep(FACTORY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timestamps.put(name + ".end", System.nanoTime());
+        return Stream.of(values);
+    }
+
+    static class SlowFactories {
+
+        static Stream<String> slowA() {
+            return factory("slowA", "a1", "a2");
+        }
+
+        static Stream<String> slowB() {
+            return factory("slowB", "b1", "b2");
+        }
+
+        @RetryFailedParameterizedTest(name = "{index}")
+        @MethodSource("slowA")
+        @ArgumentsSource(SlowBProvider.class)
+        void test(String value, TestInfo testInfo) {
+            invocations.put(testInfo.getDisplayName(), value);
+        }
+    }
+
+    /**
+     * Lazy like {@code @MethodSource}: the factory is only invoked once the stream is consumed.
+     */
+    static class SlowBProvider implements ArgumentsProvider {
+
+        @Override
+        public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+            return Stream.of("slowB").flatMap(name -> SlowFactories.slowB()).map(Arguments::of);
+        }
+    }
+}
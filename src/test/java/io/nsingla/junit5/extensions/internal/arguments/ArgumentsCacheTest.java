@@ -0,0 +1,91 @@
+package io.nsingla.junit5.extensions.internal.arguments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.nsingla.junit5.annotations.CachedArguments;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.platform.commons.JUnitException;
+import org.opentest4j.ValueWrapper;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ArgumentsCacheTest {
+
+    private static final ArgumentsProvider PROVIDER = new StaticProvider();
+
+    @Test
+    void inheritedMethodIsCachedPerTestClass() throws Exception {
+        Method method = Base.class.getDeclaredMethod("test", Object.class);
+        CachedArguments cachedArguments = method.getAnnotation(CachedArguments.class);
+        assertNotEquals(ArgumentsCache.key(SubclassA.class, method, 0, PROVIDER, cachedArguments),
+            ArgumentsCache.key(SubclassB.class, method, 0, PROVIDER, cachedArguments));
+    }
+
+    @Test
+    void cachedJavaClassesAreRead() throws Exception {
+        assertEquals(List.of("value", 42), cacheTwice(SubclassA.class, "value", 42));
+    }
+
+    @Test
+    void cachedClassesOutsideAllowedPackagesAreRejected() throws Exception {
+        JUnitException exception = assertThrows(JUnitException.class, () -> cacheTwice(SubclassB.class, ValueWrapper.create("value")));
+        assertEquals(InvalidClassException.class, exception.getCause().getClass());
+    }
+
+    /**
+     * Caches the given arguments, then reads them back from the cache.
+     */
+    private static List<Object> cacheTwice(Class<?> testClass, Object... arguments) throws Exception {
+        Method method = Base.class.getDeclaredMethod("test", Object.class);
+        CachedArguments cachedArguments = method.getAnnotation(CachedArguments.class);
+        deleteCacheFile(testClass, method, cachedArguments);
+        try (Stream<? extends Arguments> provided = ArgumentsCache.get(testClass, method, 0, PROVIDER, cachedArguments,
+            () -> Stream.of(arguments).map(Arguments::of))) {
+            assertEquals(arguments.length, provided.count());
+        }
+        try (Stream<? extends Arguments> cached = ArgumentsCache.get(testClass, method, 0, PROVIDER, cachedArguments,
+            () -> {
+                throw new AssertionError("Arguments should be cached");
+            })) {
+            return cached.map(cachedArgument -> cachedArgument.get()[0]).collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteCacheFile(Class<?> testClass, Method method, CachedArguments cachedArguments) throws IOException {
+        String key = ArgumentsCache.key(testClass, method, 0, PROVIDER, cachedArguments);
+        Files.deleteIfExists(Paths.get(System.getProperty("argumentsCacheDir", ".junit5-framework/arguments-cache")).resolve(key + ".bin"));
+    }
+
+    abstract static class Base {
+
+        @CachedArguments
+        void test(Object argument) {
+        }
+    }
+
+    static class SubclassA extends Base {
+    }
+
+    static class SubclassB extends Base {
+    }
+
+    static class StaticProvider implements ArgumentsProvider {
+
+        @Override
+        public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+            return Stream.empty();
+        }
+    }
+}
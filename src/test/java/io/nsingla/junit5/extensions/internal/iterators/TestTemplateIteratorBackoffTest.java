@@ -0,0 +1,246 @@
+package io.nsingla.junit5.extensions.internal.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.Backoff;
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs 48 test templates retried after a delay at the same time on 4 threads, and checks that only
+ * {@code retryBackoffMaxWaiting} of them wait for their retry, so the ForkJoin pool doesn't start a compensating worker
+ * for each of them.
+ * <p>
+ *     Every class has a single template and runs its invocations in the thread of the template, so the consuming thread of
+ *     a template only waits for its delayed retry.
+ * </p>
+ */
+class TestTemplateIteratorBackoffTest {
+
+    private static final int THREADS = 4;
+    private static final int MAX_WAITING_TEMPLATES = 16;
+    private static final int MAX_EXTRA_THREADS = 8;
+
+    private static final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void delayedRetriesDontGrowThePoolWithTheTemplates() throws Exception {
+        List<Class<?>> classes = Arrays.stream(TestTemplateIteratorBackoffTest.class.getDeclaredClasses())
+            .filter(DelayedTemplate.class::isAssignableFrom)
+            .collect(Collectors.toList());
+        assertEquals(48, classes.size());
+        List<DiscoverySelector> selectors = classes.stream().map(testClass -> selectClass(testClass)).collect(Collectors.toList());
+        int baselineThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        AtomicInteger peakThreads = new AtomicInteger(baselineThreads);
+        AtomicInteger peakWaiting = new AtomicInteger();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakThreads.accumulateAndGet(ManagementFactory.getThreadMXBean().getThreadCount(), Math::max);
+                peakWaiting.accumulateAndGet(countWaitingTemplates(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        try {
+            LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectors)
+                .configurationParameter("junit.jupiter.execution.parallel.config.threads", String.valueOf(THREADS))
+                .configurationParameter("junit.jupiter.execution.parallel.mode.default", "same_thread")
+                .configurationParameter("junit.jupiter.execution.parallel.mode.classes.default", "concurrent")
+                .build(), listener);
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+        }
+
+        TestExecutionSummary summary = listener.getSummary();
+        assertEquals(classes.size(), summary.getTestsSucceededCount());
+        assertEquals(classes.size(), summary.getTestsAbortedCount(), "Every template is retried once");
+        assertTrue(peakWaiting.get() > 1 && peakWaiting.get() <= MAX_WAITING_TEMPLATES, () -> peakWaiting.get() + " templates waited at once");
+        // The pool keeps the workers it started for a while, about one idle worker per waiting template
+        int maxThreads = baselineThreads + THREADS + 2 * MAX_WAITING_TEMPLATES + MAX_EXTRA_THREADS;
+        assertTrue(peakThreads.get() <= maxThreads, () -> "Threads grew from " + baselineThreads + " to " + peakThreads.get());
+    }
+
+    private static int countWaitingTemplates() {
+        return (int) Thread.getAllStackTraces().values().stream()
+            .filter(stackTrace -> Arrays.stream(stackTrace).anyMatch(element -> element.getClassName().startsWith(TestTemplateIterator.class.getName())
+                && element.getMethodName().equals("awaitNext")))
+            .count();
+    }
+
+    static class DelayedTemplate {
+
+        @RetryFailedTest(maxRetries = 1, backoff = Backoff.FIXED, backoffDelay = 1000)
+        void test(TestInfo testInfo) {
+            if (failed.add(getClass().getName())) {
+                throw new IllegalStateException("First attempt of " + getClass().getName());
+            }
+        }
+    }
+
+    // Every subclass inherits its own template
+    static class Batch1 extends DelayedTemplate {
+    }
+
+    static class Batch2 extends DelayedTemplate {
+    }
+
+    static class Batch3 extends DelayedTemplate {
+    }
+
+    static class Batch4 extends DelayedTemplate {
+    }
+
+    static class Batch5 extends DelayedTemplate {
+    }
+
+    static class Batch6 extends DelayedTemplate {
+    }
+
+    static class Batch7 extends DelayedTemplate {
+    }
+
+    static class Batch8 extends DelayedTemplate {
+    }
+
+    static class Batch9 extends DelayedTemplate {
+    }
+
+    static class Batch10 extends DelayedTemplate {
+    }
+
+    static class Batch11 extends DelayedTemplate {
+    }
+
+    static class Batch12 extends DelayedTemplate {
+    }
+
+    static class Batch13 extends DelayedTemplate {
+    }
+
+    static class Batch14 extends DelayedTemplate {
+    }
+
+    static class Batch15 extends DelayedTemplate {
+    }
+
+    static class Batch16 extends DelayedTemplate {
+    }
+
+    static class Batch17 extends DelayedTemplate {
+    }
+
+    static class Batch18 extends DelayedTemplate {
+    }
+
+    static class Batch19 extends DelayedTemplate {
+    }
+
+    static class Batch20 extends DelayedTemplate {
+    }
+
+    static class Batch21 extends DelayedTemplate {
+    }
+
+    static class Batch22 extends DelayedTemplate {
+    }
+
+    static class Batch23 extends DelayedTemplate {
+    }
+
+    static class Batch24 extends DelayedTemplate {
+    }
+
+    static class Batch25 extends DelayedTemplate {
+    }
+
+    static class Batch26 extends DelayedTemplate {
+    }
+
+    static class Batch27 extends DelayedTemplate {
+    }
+
+    static class Batch28 extends DelayedTemplate {
+    }
+
+    static class Batch29 extends DelayedTemplate {
+    }
+
+    static class Batch30 extends DelayedTemplate {
+    }
+
+    static class Batch31 extends DelayedTemplate {
+    }
+
+    static class Batch32 extends DelayedTemplate {
+    }
+
+    static class Batch33 extends DelayedTemplate {
+    }
+
+    static class Batch34 extends DelayedTemplate {
+    }
+
+    static class Batch35 extends DelayedTemplate {
+    }
+
+    static class Batch36 extends DelayedTemplate {
+    }
+
+    static class Batch37 extends DelayedTemplate {
+    }
+
+    static class Batch38 extends DelayedTemplate {
+    }
+
+    static class Batch39 extends DelayedTemplate {
+    }
+
+    static class Batch40 extends DelayedTemplate {
+    }
+
+    static class Batch41 extends DelayedTemplate {
+    }
+
+    static class Batch42 extends DelayedTemplate {
+    }
+
+    static class Batch43 extends DelayedTemplate {
+    }
+
+    static class Batch44 extends DelayedTemplate {
+    }
+
+    static class Batch45 extends DelayedTemplate {
+    }
+
+    static class Batch46 extends DelayedTemplate {
+    }
+
+    static class Batch47 extends DelayedTemplate {
+    }
+}
@@ -0,0 +1,184 @@
+package io.nsingla.junit5.extensions.internal.iterators;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs 10k retrying test templates concurrently on 32 threads, 100 templates per run, and checks threads and heap don't
+ * grow with them.
+ */
+class TestTemplateIteratorStressTest {
+
+    private static final int RUNS = 100;
+    private static final int WARM_UP_RUNS = 10;
+    private static final int TEMPLATES_PER_RUN = 100;
+    private static final int MAX_EXTRA_THREADS = 8;
+    private static final long MAX_EXTRA_HEAP = 32 * 1024 * 1024;
+
+    private static final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peakRunning = new AtomicInteger();
+
+    @Test
+    void retryingTemplatesDontAccumulateThreadsOrHeap() {
+        List<DiscoverySelector> selectors = Stream.of(RetryingTemplates.class, Batch1.class, Batch2.class, Batch3.class, Batch4.class,
+                Batch5.class, Batch6.class, Batch7.class, Batch8.class, Batch9.class)
+            .map(testClass -> selectClass(testClass))
+            .collect(Collectors.toList());
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectors)
+            // Parameters of the execution strategy are prefixed
+            .configurationParameter("junit.jupiter.execution.parallel.config.threads", "32")
+            .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+            .build();
+        Launcher launcher = LauncherFactory.create();
+
+        int baselineThreads = 0;
+        long baselineHeap = 0;
+        for (int run = 0; run < RUNS; run++) {
+            attempts.clear();
+            SummaryGeneratingListener listener = new SummaryGeneratingListener();
+            launcher.execute(request, listener);
+            TestExecutionSummary summary = listener.getSummary();
+            assertEquals(TEMPLATES_PER_RUN, summary.getTestsSucceededCount(), "Run " + run);
+            assertEquals(TEMPLATES_PER_RUN, summary.getTestsAbortedCount(), "Run " + run + ": every template is retried once");
+            if (run == WARM_UP_RUNS - 1) {
+                baselineThreads = threadCount();
+                baselineHeap = usedHeap();
+            }
+        }
+
+        int threads = threadCount();
+        long heap = usedHeap();
+        assertTrue(peakRunning.get() > 1, "Templates ran concurrently");
+        int expectedThreads = baselineThreads;
+        long expectedHeap = baselineHeap;
+        assertTrue(threads <= expectedThreads + MAX_EXTRA_THREADS, () -> "Threads grew from " + expectedThreads + " to " + threads);
+        assertTrue(heap <= expectedHeap + MAX_EXTRA_HEAP, () -> "Heap grew from " + expectedHeap + " to " + heap + " bytes");
+    }
+
+    private static int threadCount() {
+        return ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    static class RetryingTemplates {
+
+        private void failFirstAttempt(TestInfo testInfo) throws InterruptedException {
+            String key = getClass().getName() + "#" + testInfo.getTestMethod().orElseThrow().getName();
+            int current = running.incrementAndGet();
+            peakRunning.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(1); // Let the attempts of other templates overlap
+                if (attempts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() == 1) {
+                    throw new IllegalStateException("First attempt of " + key);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test0(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test1(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test2(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test3(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test4(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test5(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test6(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test7(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test8(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void test9(TestInfo testInfo) throws InterruptedException {
+            failFirstAttempt(testInfo);
+        }
+    }
+
+    // Every subclass inherits its own 10 templates
+    static class Batch1 extends RetryingTemplates {
+    }
+
+    static class Batch2 extends RetryingTemplates {
+    }
+
+    static class Batch3 extends RetryingTemplates {
+    }
+
+    static class Batch4 extends RetryingTemplates {
+    }
+
+    static class Batch5 extends RetryingTemplates {
+    }
+
+    static class Batch6 extends RetryingTemplates {
+    }
+
+    static class Batch7 extends RetryingTemplates {
+    }
+
+    static class Batch8 extends RetryingTemplates {
+    }
+
+    static class Batch9 extends RetryingTemplates {
+    }
+}
@@ -0,0 +1,49 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveRetryLimitTest {
+
+    @Test
+    void testsWithoutHistoryGetTheMaximum() {
+        assertEquals(3, AdaptiveRetryLimit.fromOutcomes("", 3));
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("RRR", 0));
+    }
+
+    @Test
+    void testsPassingOnRetryGetAShareOfTheMaximum() {
+        assertEquals(4, AdaptiveRetryLimit.fromOutcomes("PPRPR", 4));
+        assertEquals(2, AdaptiveRetryLimit.fromOutcomes("RFPF", 4), "Passed on a retry once out of two retried failures");
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("RFFFFFFFFF", 4), "At least one retry");
+        assertEquals(2, AdaptiveRetryLimit.fromOutcomes("RFU", 3), "Failures without retry don't count");
+    }
+
+    @Test
+    void testsFailingAllTheirRetriesArentRetried() {
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("F", 3));
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("PPFP", 3));
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("UF", 3));
+    }
+
+    @Test
+    void failureWithoutRetryAfterTheLastFailedRetriesGetsAProbe() {
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("FU", 3));
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("FPPU", 3));
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("FUF", 3), "The probe failed too");
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("FUFPU", 3));
+    }
+
+    @Test
+    void testsFailingWithoutRetryGetAProbe() {
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("U", 3));
+        assertEquals(1, AdaptiveRetryLimit.fromOutcomes("PPUP", 3));
+    }
+
+    @Test
+    void testsAlwaysPassingArentRetried() {
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("P", 3));
+        assertEquals(0, AdaptiveRetryLimit.fromOutcomes("PPPPP", 3));
+    }
+}
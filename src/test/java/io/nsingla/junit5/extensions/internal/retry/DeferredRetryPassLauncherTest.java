@@ -0,0 +1,245 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs test classes with deferred retries under concurrent execution, recording the order in which attempts start and end.
+ * <p>
+ *     {@code deferRetries} and {@code deferredRetryLimit} are read once per JVM, so this test only runs in the
+ *     {@code deferred-retries} Surefire execution, which sets them to {@code true} and {@value #DEFERRED_RETRY_LIMIT}.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "deferRetries", matches = "true")
+class DeferredRetryPassLauncherTest {
+
+    private static final int DEFERRED_RETRY_LIMIT = 3;
+    private static final long SLOW_TEST_MILLIS = 1000;
+    private static final Pattern RETRY = Pattern.compile("\\[retry (\\d+)]$");
+
+    private static final Queue<Event> events = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void clearEvents() {
+        events.clear();
+    }
+
+    @Test
+    void retriesStartOnceEveryFirstAttemptFinished() {
+        TestExecutionSummary summary = execute(FlakyTests.class, FlakyAndSlowTests.class);
+
+        assertEquals(0, summary.getTestsFailedCount());
+        assertEquals(4, summary.getTestsSucceededCount());
+        assertEquals(4, summary.getTestsAbortedCount(), "Retried attempts");
+        List<Event> recorded = new ArrayList<>(events);
+        int lastFirstAttemptEnd = lastIndexOf(recorded, event -> !event.start && event.retry == 0);
+        int firstRetryStart = indexOf(recorded, event -> event.start && event.retry > 0);
+        assertTrue(lastFirstAttemptEnd < firstRetryStart, () -> "A retry started before every first attempt finished: " + recorded);
+        // Every attempt of a template ends before the next one starts, numbered from 1
+        assertEquals(List.of(0, 0, 1, 1, 2, 2), attemptsOf(recorded, "FlakyTests#failsTwice"));
+        assertEquals(List.of(0, 0, 1, 1), attemptsOf(recorded, "FlakyTests#failsOnce"));
+        assertEquals(List.of(0, 0, 1, 1), attemptsOf(recorded, "FlakyAndSlowTests#failsOnce"));
+    }
+
+    @Test
+    void retriesOfTemplatesOverTheLimitArentDeferred() {
+        TestExecutionSummary summary = execute(ManyFlakyTests.class, SlowTest.class);
+
+        assertEquals(0, summary.getTestsFailedCount());
+        assertEquals(6, summary.getTestsSucceededCount());
+        List<Event> recorded = new ArrayList<>(events);
+        int slowEnd = indexOf(recorded, event -> !event.start && event.name.equals("SlowTest#slow"));
+        long deferred = recorded.stream().filter(event -> event.start && event.retry > 0).filter(event -> recorded.indexOf(event) > slowEnd).count();
+        assertEquals(DEFERRED_RETRY_LIMIT, deferred, () -> "Retries deferred until the slow test ended: " + recorded);
+    }
+
+    @Test
+    void retriesOfLockedClassesArentDeferred() {
+        TestExecutionSummary summary = execute(LockedFlakyTests.class, SlowTest.class);
+
+        assertEquals(0, summary.getTestsFailedCount());
+        assertEquals(2, summary.getTestsSucceededCount());
+        List<Event> recorded = new ArrayList<>(events);
+        int slowEnd = indexOf(recorded, event -> !event.start && event.name.equals("SlowTest#slow"));
+        int retryStart = indexOf(recorded, event -> event.start && event.retry > 0);
+        assertTrue(retryStart < slowEnd, () -> "Retry of the locked class was deferred: " + recorded);
+    }
+
+    @Test
+    void retriesOfIsolatedClassesArentDeferred() {
+        // Deferring the retries of the isolated class would keep its global lock until every other test finished
+        TestExecutionSummary summary = assertTimeoutPreemptively(Duration.ofSeconds(30),
+            () -> execute(IsolatedFlakyTests.class, SlowTest.class));
+
+        assertEquals(0, summary.getTestsFailedCount());
+        assertEquals(2, summary.getTestsSucceededCount());
+        assertEquals(List.of(0, 0, 1, 1), attemptsOf(new ArrayList<>(events), "IsolatedFlakyTests#failsOnce"));
+    }
+
+    private static TestExecutionSummary execute(Class<?>... classes) {
+        List<DiscoverySelector> selectors = Arrays.stream(classes).map(testClass -> selectClass(testClass)).collect(Collectors.toList());
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectors)
+            .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+            .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+            .configurationParameter("junit.jupiter.execution.parallel.config.threads", "4")
+            .build(), listener);
+        return listener.getSummary();
+    }
+
+    private static int indexOf(List<Event> recorded, Predicate<Event> predicate) {
+        return IntStream.range(0, recorded.size()).filter(i -> predicate.test(recorded.get(i))).findFirst().orElse(-1);
+    }
+
+    private static int lastIndexOf(List<Event> recorded, Predicate<Event> predicate) {
+        return IntStream.range(0, recorded.size()).filter(i -> predicate.test(recorded.get(i))).reduce((first, second) -> second).orElse(-1);
+    }
+
+    private static List<Integer> attemptsOf(List<Event> recorded, String name) {
+        return recorded.stream().filter(event -> event.name.equals(name)).map(event -> event.retry).collect(Collectors.toList());
+    }
+
+    /**
+     * Records the start and the end of an attempt, failing the first {@code failures} ones.
+     */
+    static void attempt(TestInfo testInfo, int failures, long sleepMillis) throws InterruptedException {
+        Matcher matcher = RETRY.matcher(testInfo.getDisplayName());
+        int retry = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+        String name = testInfo.getTestClass().orElseThrow().getSimpleName() + "#" + testInfo.getTestMethod().orElseThrow().getName();
+        events.add(new Event(name, retry, true));
+        try {
+            Thread.sleep(sleepMillis);
+            if (retry < failures) {
+                throw new IllegalStateException("Attempt " + retry + " of " + name);
+            }
+        } finally {
+            events.add(new Event(name, retry, false));
+        }
+    }
+
+    private static final class Event {
+
+        private final String name;
+        private final int retry;
+        private final boolean start;
+
+        private Event(String name, int retry, boolean start) {
+            this.name = name;
+            this.retry = retry;
+            this.start = start;
+        }
+
+        @Override
+        public String toString() {
+            return (start ? "start " : "end ") + name + (retry > 0 ? "[retry " + retry + "]" : "");
+        }
+    }
+
+    static class FlakyTests {
+
+        @RetryFailedTest(maxRetries = 2)
+        void failsTwice(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 2, 0);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+    }
+
+    static class FlakyAndSlowTests {
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+
+        @Test
+        void slow(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 0, SLOW_TEST_MILLIS);
+        }
+    }
+
+    static class ManyFlakyTests {
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce1(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce2(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce3(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce4(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce5(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+    }
+
+    static class SlowTest {
+
+        @Test
+        void slow(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 0, SLOW_TEST_MILLIS);
+        }
+    }
+
+    @ResourceLock("database")
+    static class LockedFlakyTests {
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+    }
+
+    @Isolated
+    static class IsolatedFlakyTests {
+
+        @RetryFailedTest(maxRetries = 1)
+        void failsOnce(TestInfo testInfo) throws InterruptedException {
+            attempt(testInfo, 1, 0);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+class DeferredRetryPassTest {
+
+    @Test
+    void classesWithoutLocksDontUseExclusiveResources() {
+        assertFalse(DeferredRetryPass.usesExclusiveResources(Unlocked.class));
+    }
+
+    @Test
+    void lockOnAnyMethodOrNestedClassLocksTheTopLevelClass() {
+        assertTrue(DeferredRetryPass.usesExclusiveResources(MethodLock.class));
+        assertTrue(DeferredRetryPass.usesExclusiveResources(NestedLock.class));
+        assertTrue(DeferredRetryPass.usesExclusiveResources(NestedLock.Inner.class));
+        assertTrue(DeferredRetryPass.usesExclusiveResources(IsolatedClass.class));
+        assertTrue(DeferredRetryPass.usesExclusiveResources(SubclassOfIsolated.class));
+    }
+
+    static class Unlocked {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class MethodLock {
+
+        @Test
+        @ResourceLock("database")
+        void test() {
+        }
+    }
+
+    static class NestedLock {
+
+        @Nested
+        class Inner {
+
+            @Test
+            @ResourceLock("database")
+            @ResourceLock("browser")
+            void test() {
+            }
+        }
+    }
+
+    @Isolated
+    static class IsolatedClass {
+    }
+
+    static class SubclassOfIsolated extends IsolatedClass {
+    }
+}
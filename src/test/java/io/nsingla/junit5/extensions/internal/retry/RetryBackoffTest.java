@@ -0,0 +1,50 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.nsingla.junit5.annotations.Backoff;
+import org.junit.jupiter.api.Test;
+
+class RetryBackoffTest {
+
+    @Test
+    void noneRetriesRightAway() {
+        RetryBackoff backoff = RetryBackoff.of(Backoff.NONE, 100, 1000);
+        assertEquals(0, backoff.nextDelay(1, 0));
+        assertEquals(0, backoff.nextDelay(5, 100));
+    }
+
+    @Test
+    void fixedWaitsTheDelayUpToTheMaximum() {
+        assertEquals(100, RetryBackoff.of(Backoff.FIXED, 100, 1000).nextDelay(3, 100));
+        assertEquals(50, RetryBackoff.of(Backoff.FIXED, 100, 50).nextDelay(1, 0));
+    }
+
+    @Test
+    void exponentialDoublesTheDelayUpToTheMaximum() {
+        RetryBackoff backoff = RetryBackoff.of(Backoff.EXPONENTIAL, 100, 1000);
+        assertEquals(100, backoff.nextDelay(1, 0));
+        assertEquals(200, backoff.nextDelay(2, 100));
+        assertEquals(400, backoff.nextDelay(3, 200));
+        assertEquals(800, backoff.nextDelay(4, 400));
+        assertEquals(1000, backoff.nextDelay(5, 800));
+        assertEquals(1000, backoff.nextDelay(100, 1000), "No overflow on high retry numbers");
+        assertEquals(1L << 30, RetryBackoff.of(Backoff.EXPONENTIAL, 1, Long.MAX_VALUE).nextDelay(100, 0), "Doubled 30 times at most");
+    }
+
+    @Test
+    void decorrelatedJitterStaysWithinBounds() {
+        RetryBackoff backoff = RetryBackoff.of(Backoff.DECORRELATED_JITTER, 100, 1000);
+        long previousDelay = 0;
+        for (int retry = 1; retry <= 10_000; retry++) {
+            long delay = backoff.nextDelay(retry, previousDelay);
+            long upperBound = Math.min(Math.max(100, previousDelay) * 3, 1000);
+            long lowerBound = Math.min(100, upperBound);
+            long checkedPrevious = previousDelay;
+            assertTrue(delay >= lowerBound && delay <= upperBound,
+                () -> delay + " not in [" + lowerBound + ", " + upperBound + "] after " + checkedPrevious);
+            previousDelay = delay;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.nsingla.junit5.extensions.internal.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class RetryBudgetTest {
+
+    @Test
+    void totalBudgetStaysExhausted() {
+        RetryBudget budget = new RetryBudget("2");
+        assertTrue(budget.acquire());
+        assertTrue(budget.acquire());
+        assertFalse(budget.acquire());
+        for (int i = 0; i < 100; i++) {
+            budget.started();
+        }
+        assertFalse(budget.acquire());
+    }
+
+    @Test
+    void percentageBudgetGrowsWithStartedTests() {
+        RetryBudget budget = new RetryBudget("10%");
+        budget.started();
+        budget.started();
+        assertTrue(budget.acquire());
+        assertFalse(budget.acquire());
+        for (int i = 0; i < 18; i++) {
+            budget.started();
+        }
+        assertTrue(budget.acquire());
+        assertFalse(budget.acquire());
+    }
+
+    @Test
+    void percentageBudgetWithConcurrentFailures() throws Exception {
+        RetryBudget budget = new RetryBudget("10%");
+        // Early burst of failures exhausts the budget for a while
+        budget.started();
+        budget.started();
+        assertTrue(budget.acquire());
+        assertFalse(budget.acquire());
+
+        int threads = 16;
+        int testsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> granted = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                granted.add(executor.submit(() -> {
+                    start.await();
+                    int retries = 0;
+                    for (int i = 0; i < testsPerThread; i++) {
+                        budget.started();
+                        // One test out of 4 fails, far above the budget
+                        if (i % 4 == 0 && budget.acquire()) {
+                            retries++;
+                        }
+                    }
+                    return retries;
+                }));
+            }
+            start.countDown();
+            int total = 1;
+            for (Future<Integer> future : granted) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            int startedTests = 2 + threads * testsPerThread;
+            int limit = (int) Math.ceil(0.1 * startedTests);
+            assertTrue(total <= limit, "granted " + total + " retries, limit is " + limit);
+            assertTrue(total > 1, "retries never resumed after the early burst");
+
+            // Whatever is left of the budget can still be taken, and no more
+            while (budget.acquire()) {
+                total++;
+            }
+            assertEquals(limit, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.nsingla.junit5.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class ShardFilterTest {
+
+    private static final List<Class<?>> CLASSES = List.of(Alpha.class, Beta.class, Gamma.class, Delta.class, Epsilon.class, Outer.class);
+
+    @Test
+    void everyDiscoveredClassRunsOnExactlyOneShard() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put(Alpha.class.getName(), 5000L);
+        durations.put(Beta.class.getName(), 300L);
+        durations.put(Outer.class.getName(), 800L);
+        // Already counted in its outer class, and a class that doesn't exist anymore
+        durations.put(Outer.Inner.class.getName(), 700L);
+        durations.put("com.example.RemovedTest", 90000L);
+        Launcher launcher = LauncherFactory.create();
+
+        for (int shardTotal = 2; shardTotal <= CLASSES.size() + 1; shardTotal++) {
+            Map<String, Integer> shards = new HashMap<>();
+            for (int shardIndex = 0; shardIndex < shardTotal; shardIndex++) {
+                ShardFilter filter = new ShardFilter(shardTotal, shardIndex, () -> durations);
+                TestPlan testPlan = discover(launcher, filter, CLASSES);
+                for (String className : topLevelClasses(testPlan)) {
+                    Integer previous = shards.put(className, shardIndex);
+                    assertEquals(null, previous, className + " runs on shards " + previous + " and " + shardIndex + " of " + shardTotal);
+                }
+                if (Integer.valueOf(shardIndex).equals(shards.get(Outer.class.getName()))) {
+                    assertTrue(testPlan.getRoots().stream().flatMap(root -> testPlan.getDescendants(root).stream())
+                        .anyMatch(identifier -> identifier.getSource().filter(ClassSource.class::isInstance)
+                            .map(source -> ((ClassSource) source).getJavaClass()).filter(Outer.Inner.class::equals).isPresent()),
+                        "Nested class runs with its outer class");
+                }
+                // Surefire discovers the classes one by one
+                for (Class<?> testClass : CLASSES) {
+                    boolean included = !topLevelClasses(discover(launcher, filter, List.of(testClass))).isEmpty();
+                    assertEquals(Integer.valueOf(shardIndex).equals(shards.get(testClass.getName())), included,
+                        testClass.getName() + " discovered alone on shard " + shardIndex + " of " + shardTotal);
+                }
+            }
+            assertEquals(CLASSES.stream().map(Class::getName).sorted().collect(Collectors.toList()),
+                shards.keySet().stream().sorted().collect(Collectors.toList()), "Every class runs on a shard of " + shardTotal);
+        }
+    }
+
+    @Test
+    void nestedAndRemovedClassesDontCountInTotals() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put(Alpha.class.getName(), 100L);
+        durations.put(Beta.class.getName(), 100L);
+        durations.put(Outer.Inner.class.getName(), 10000L);
+        durations.put("com.example.RemovedTest", 10000L);
+
+        ShardFilter.Assignment assignment = ShardFilter.assign(durations, 2);
+        assertNotEquals(assignment.getShard(Alpha.class.getName()), assignment.getShard(Beta.class.getName()));
+    }
+
+    @Test
+    void classesWithoutHistoryGoToTheShortestShards() {
+        Map<String, Long> durations = Map.of(Alpha.class.getName(), 3000L, Beta.class.getName(), 1000L);
+
+        ShardFilter.Assignment assignment = ShardFilter.assign(durations, 2);
+        int shortest = assignment.getShard(Beta.class.getName());
+        // Weights are 2000 for the longest shard, 2000 + 2000 for the shortest one
+        long onShortest = IntStream.range(0, 3000).filter(i -> assignment.getShard("com.example.NewTest" + i) == shortest).count();
+        assertTrue(onShortest > 1800 && onShortest < 2200, onShortest + " of 3000 new classes on the shortest shard");
+    }
+
+    private static TestPlan discover(Launcher launcher, ShardFilter filter, List<Class<?>> classes) {
+        return launcher.discover(LauncherDiscoveryRequestBuilder.request()
+            .selectors(classes.stream().map(testClass -> selectClass(testClass)).collect(Collectors.toList()))
+            .filters(filter)
+            .build());
+    }
+
+    private static List<String> topLevelClasses(TestPlan testPlan) {
+        List<String> classNames = new ArrayList<>();
+        testPlan.getRoots().stream()
+            .flatMap(root -> testPlan.getChildren(root).stream())
+            .map(TestIdentifier::getSource)
+            .flatMap(source -> source.filter(ClassSource.class::isInstance).map(ClassSource.class::cast).stream())
+            .forEach(source -> classNames.add(source.getClassName()));
+        return classNames;
+    }
+
+    static class Alpha {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class Beta {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class Gamma {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class Delta {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class Epsilon {
+
+        @Test
+        void test() {
+        }
+    }
+
+    static class Outer {
+
+        @Test
+        void test() {
+        }
+
+        @Nested
+        class Inner {
+
+            @Test
+            void test() {
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package io.nsingla.junit5.fixtures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.nsingla.junit5.annotations.Fixture;
+import io.nsingla.junit5.annotations.RetryFailedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class FixturePoolTest {
+
+    @Test
+    void releasedInstancesAreReusedUnlessDiscarded() throws Exception {
+        TestFactory factory = new TestFactory();
+        FixturePool<Instance> pool = new FixturePool<>(factory, 1);
+
+        FixturePool.Lease<Instance> first = pool.lease();
+        first.release(false);
+        FixturePool.Lease<Instance> second = pool.lease();
+        assertSame(first.get(), second.get());
+        second.release(true);
+        second.release(false);
+        FixturePool.Lease<Instance> third = pool.lease();
+        assertNotSame(first.get(), third.get());
+
+        assertEquals(2, pool.getCreated());
+        assertEquals(1, pool.getDiscarded());
+        assertEquals(List.of(first.get()), factory.destroyed, "Released once");
+        assertEquals(1, pool.getLeased());
+    }
+
+    @Test
+    void instancesAreRecycledAfterMaxUses() throws Exception {
+        TestFactory factory = new TestFactory();
+        factory.maxUses = 2;
+        FixturePool<Instance> pool = new FixturePool<>(factory, 1);
+
+        List<Instance> leased = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            FixturePool.Lease<Instance> lease = pool.lease();
+            leased.add(lease.get());
+            lease.release(false);
+        }
+        List<Instance> created = factory.created;
+        assertEquals(List.of(created.get(0), created.get(0), created.get(1), created.get(1), created.get(2)), leased);
+        assertEquals(2, pool.getRecycled());
+        assertEquals(List.of(created.get(0), created.get(1)), factory.destroyed);
+    }
+
+    @Test
+    void unhealthyIdleInstancesAreReplaced() throws Exception {
+        TestFactory factory = new TestFactory();
+        FixturePool<Instance> pool = new FixturePool<>(factory, 1);
+        FixturePool.Lease<Instance> first = pool.lease();
+        FixturePool.Lease<Instance> second = pool.lease();
+        first.release(false);
+        second.release(false);
+
+        second.get().healthy = false;
+        FixturePool.Lease<Instance> lease = pool.lease();
+        assertSame(first.get(), lease.get(), "The unhealthy instance is destroyed, the next idle one is leased");
+        first.get().healthy = false;
+        lease.release(false);
+        FixturePool.Lease<Instance> replaced = pool.lease();
+
+        assertEquals(3, pool.getCreated());
+        assertEquals(2, pool.getUnhealthy());
+        assertEquals(List.of(second.get(), first.get()), factory.destroyed);
+        assertTrue(replaced.get().healthy);
+    }
+
+    @Test
+    void failedWarmUpDestroysTheInstancesCreatedSoFar() throws Exception {
+        TestFactory factory = new TestFactory();
+        factory.minSize = 3;
+        factory.failingWarmUp = 2;
+        FixturePool<Instance> pool = new FixturePool<>(factory, 1);
+
+        assertThrows(IllegalStateException.class, pool::lease);
+        assertEquals(2, pool.getCreated());
+        assertEquals(List.of(factory.created.get(1), factory.created.get(0)), factory.destroyed, "Failed instance first, then the warmed up one");
+        assertEquals(0, pool.getIdle());
+        assertEquals(0, pool.getLeased());
+
+        FixturePool.Lease<Instance> lease = pool.lease();
+        assertEquals(5, pool.getCreated(), "Warmed up from scratch");
+        assertEquals(2, pool.getIdle());
+        lease.release(false);
+        assertEquals(3, pool.getIdle());
+    }
+
+    @Test
+    void leaseTimesOutOnceAllInstancesAreLeased() throws Exception {
+        TestFactory factory = new TestFactory();
+        factory.maxSize = 1;
+        FixturePool<Instance> pool = new FixturePool<>(factory, 1);
+        FixturePool.Lease<Instance> lease = pool.lease();
+
+        long start = System.nanoTime();
+        JUnitException exception = assertThrows(JUnitException.class, pool::lease);
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1));
+        assertTrue(exception.getMessage().startsWith("Timed out after 1s waiting for an instance of " + TestFactory.class.getName()), exception.getMessage());
+        assertEquals(2, pool.getWaitTime().getCount(), "Wait of the timed out lease is recorded");
+        assertTrue(pool.getWaitTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(900));
+
+        lease.release(false);
+        assertSame(lease.get(), pool.lease().get());
+        assertEquals(1, pool.getCreated());
+    }
+
+    @Test
+    void instancesOfFailedAndRetriedTestsAreDiscarded() {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(FixtureTests.class))
+            .build(), listener);
+
+        assertEquals(1, listener.getSummary().getTestsSucceededCount());
+        assertEquals(1, listener.getSummary().getTestsAbortedCount(), "Retried attempt");
+        assertEquals(1, listener.getSummary().getTestsFailedCount());
+        FixturePool<?> pool = FixturePool.of(TrackedFactory.class);
+        assertEquals(2, pool.getDiscarded(), "Instances of the failed test and of the retried attempt");
+        assertEquals(3, FixtureTests.used.size());
+        assertEquals(2, FixtureTests.failedAt.size());
+        for (int failed : FixtureTests.failedAt) {
+            assertEquals(failed, FixtureTests.used.lastIndexOf(FixtureTests.used.get(failed)), "Discarded instances aren't reused");
+        }
+        assertEquals(0, pool.getLeased());
+    }
+
+    static final class Instance {
+
+        private volatile boolean healthy = true;
+    }
+
+    static class TestFactory implements FixtureFactory<Instance> {
+
+        final List<Instance> created = new CopyOnWriteArrayList<>();
+        final List<Instance> destroyed = new CopyOnWriteArrayList<>();
+        int failingWarmUp = 0;
+        int minSize = 0;
+        int maxSize = 4;
+        int maxUses = 0;
+
+        @Override
+        public Instance create() {
+            Instance instance = new Instance();
+            created.add(instance);
+            return instance;
+        }
+
+        @Override
+        public void warmUp(Instance instance) {
+            if (created.indexOf(instance) + 1 == failingWarmUp) {
+                throw new IllegalStateException("Unable to warm up instance " + failingWarmUp);
+            }
+        }
+
+        @Override
+        public boolean isHealthy(Instance instance) {
+            return instance.healthy;
+        }
+
+        @Override
+        public void destroy(Instance instance) {
+            destroyed.add(instance);
+        }
+
+        @Override
+        public int minSize() {
+            return minSize;
+        }
+
+        @Override
+        public int maxSize() {
+            return maxSize;
+        }
+
+        @Override
+        public int maxUses() {
+            return maxUses;
+        }
+    }
+
+    public static class TrackedFactory implements FixtureFactory<Instance> {
+
+        @Override
+        public Instance create() {
+            return new Instance();
+        }
+    }
+
+    static class FixtureTests {
+
+        static final List<Instance> used = new CopyOnWriteArrayList<>();
+        // Positions in used of the attempts that failed
+        static final List<Integer> failedAt = new CopyOnWriteArrayList<>();
+        static final AtomicBoolean retried = new AtomicBoolean(false);
+
+        @RetryFailedTest(maxRetries = 1)
+        void passesOnRetry(@Fixture(TrackedFactory.class) Instance instance) {
+            used.add(instance);
+            if (retried.compareAndSet(false, true)) {
+                failedAt.add(used.size() - 1);
+                throw new IllegalStateException("First attempt");
+            }
+        }
+
+        @Test
+        void fails(@Fixture(TrackedFactory.class) Instance instance) {
+            used.add(instance);
+            failedAt.add(used.size() - 1);
+            throw new IllegalStateException("Failed");
+        }
+    }
+}
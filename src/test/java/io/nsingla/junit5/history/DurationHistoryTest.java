@@ -0,0 +1,80 @@
+package io.nsingla.junit5.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+class DurationHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void overloadedMethodsHaveTheirOwnDuration() throws Exception {
+        String single = DurationHistory.methodKey(MethodSource.from(Overloads.class, Overloads.class.getDeclaredMethod("run", String.class)));
+        String pair = DurationHistory.methodKey(MethodSource.from(Overloads.class, Overloads.class.getDeclaredMethod("run", String.class, int.class)));
+        assertEquals(Overloads.class.getName() + "#run(java.lang.String, int)", pair);
+
+        Path file = directory.resolve("test-durations.properties");
+        DurationHistory history = new DurationHistory(file);
+        history.record(single, 100);
+        history.record(pair, 2000);
+        history.save();
+
+        DurationHistory nextRun = new DurationHistory(file);
+        assertEquals(Optional.of(100L), nextRun.getDuration(single));
+        assertEquals(Optional.of(2000L), nextRun.getDuration(pair));
+    }
+
+    @Test
+    void methodKeysWithoutParameterTypesAreDropped() throws Exception {
+        Path file = directory.resolve("test-durations.properties");
+        Files.write(file, List.of("com.example.CheckoutTest=900", "com.example.CheckoutTest#pay=500", "com.example.CheckoutTest#pay()=400"),
+            StandardCharsets.UTF_8);
+
+        DurationHistory history = new DurationHistory(file);
+        assertTrue(history.getDuration("com.example.CheckoutTest").isPresent());
+        assertFalse(history.getDuration("com.example.CheckoutTest#pay").isPresent());
+        assertEquals(Optional.of(400L), history.getDuration("com.example.CheckoutTest#pay()"));
+    }
+
+    @Test
+    void savesKeepDurationsOfOtherJvms() throws Exception {
+        Path file = directory.resolve("test-durations.properties");
+        Files.write(file, List.of("com.example.ATest=1000", "com.example.BTest=1000"), StandardCharsets.UTF_8);
+        // Both forks load the history when they start
+        DurationHistory fork1 = new DurationHistory(file);
+        DurationHistory fork2 = new DurationHistory(file);
+
+        fork1.record("com.example.ATest", 3000);
+        fork1.save();
+        fork2.record("com.example.BTest", 500);
+        fork2.record("com.example.CTest", 200);
+        fork2.save();
+
+        DurationHistory nextRun = new DurationHistory(file);
+        assertEquals(Optional.of(2000L), nextRun.getDuration("com.example.ATest"), "Saved by the other fork");
+        assertEquals(Optional.of(750L), nextRun.getDuration("com.example.BTest"));
+        assertEquals(Optional.of(200L), nextRun.getDuration("com.example.CTest"));
+        assertEquals(Optional.of(2000L), fork2.getDuration("com.example.ATest"), "Merged into the fork saving");
+    }
+
+    static class Overloads {
+
+        void run(String name) {
+        }
+
+        void run(String name, int times) {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.nsingla.junit5.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.nsingla.junit5.history.FlakinessLedger.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class FlakinessLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compactionKeepsLinesAppendedByOtherJvms() throws Exception {
+        Path file = directory.resolve("flakiness-ledger.tsv");
+        Files.write(file, List.of("t1\tP", "t1\tP", "t1\tP"), StandardCharsets.UTF_8);
+        // Both forks load the ledger when they start
+        FlakinessLedger fork1 = new FlakinessLedger(file);
+        FlakinessLedger fork2 = new FlakinessLedger(file);
+
+        fork2.record("t2", Outcome.PASSED_ON_RETRY);
+        fork2.save();
+        assertEquals(4, Files.readAllLines(file).size(), "Appended without compaction");
+
+        fork1.record("t1", Outcome.FAILED);
+        fork1.save();
+        assertEquals(List.of("t1\tPPPF", "t2\tR"), Files.readAllLines(file), "Compacted with the line of the other fork");
+
+        FlakinessLedger nextRun = new FlakinessLedger(file);
+        assertEquals("PPPF", nextRun.getOutcomes("t1"));
+        assertEquals("R", nextRun.getOutcomes("t2"));
+    }
+}
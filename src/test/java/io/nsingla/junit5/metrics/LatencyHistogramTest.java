@@ -0,0 +1,73 @@
+package io.nsingla.junit5.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+class LatencyHistogramTest {
+
+    private static final long MAX_VALUE = (1L << 42) - 1;
+
+    @Test
+    void bucketMiddleIsInItsBucket() {
+        int lastIndex = LatencyHistogram.bucketIndex(MAX_VALUE);
+        for (int index = 0; index <= lastIndex; index++) {
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.bucketMiddle(index)), "Middle of bucket " + index);
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        for (long value = 1; value < 1 << 16; value++) {
+            int difference = LatencyHistogram.bucketIndex(value) - LatencyHistogram.bucketIndex(value - 1);
+            assertTrue(difference == 0 || difference == 1, "Bucket of " + value);
+        }
+        for (int exponent = 5; exponent < 42; exponent++) {
+            long power = 1L << exponent;
+            assertEquals(LatencyHistogram.bucketIndex(power - 1) + 1, LatencyHistogram.bucketIndex(power), "Bucket of 2^" + exponent);
+        }
+    }
+
+    @Test
+    void relativeErrorIsBelowOneSixteenth() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = 1 + (random.nextLong() >>> (22 + random.nextInt(41)));
+            long middle = LatencyHistogram.bucketMiddle(LatencyHistogram.bucketIndex(value));
+            double error = Math.abs(middle - value) / (double) value;
+            assertTrue(error < 1.0 / 16, () -> value + " approximated by " + middle);
+        }
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketMiddle(LatencyHistogram.bucketIndex(value)), "Small values are exact");
+        }
+    }
+
+    @Test
+    void quantilesAreApproximatedWithinTheRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500500), histogram.getSum());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), histogram.getValueAtQuantile(0.5), TimeUnit.MILLISECONDS.toNanos(500) / 16.0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(990), histogram.getValueAtQuantile(0.99), TimeUnit.MILLISECONDS.toNanos(990) / 16.0);
+        long highest = histogram.getValueAtQuantile(1);
+        assertTrue(highest <= histogram.getMax() && highest > histogram.getMax() * 15 / 16, "Middle of the bucket of the maximum: " + highest);
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getValueAtQuantile(1));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.bucketMiddle(LatencyHistogram.bucketIndex(MAX_VALUE)), histogram.getValueAtQuantile(1));
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+    }
+}